@@ -30,6 +30,7 @@ import java.security.SecureRandom;
 public class MainActivity extends AppCompatActivity {
     private String[] mDatas;
     private RecyclerView recyclerView;
+    private StickyRecyclerDecoration decor;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,20 +48,23 @@ public class MainActivity extends AppCompatActivity {
         recyclerView.setLayoutManager(layoutManager);
 
         // Add the sticky headers decoration
-        final StickyRecyclerDecoration decor = new StickyRecyclerDecoration(adapter);
+        decor = new StickyRecyclerDecoration(adapter);
+        decor.setSectionIndexEnabled(true);
+        decor.setSectionDrawingEnabled(true);
+        decor.setPrefetchEnabled(true);
         recyclerView.addItemDecoration(decor);
         // Add other decoration for dividers between list items view cause errors;
         // Add touch listeners
         StickyRecyclerTouchListener touchListener =
                 new StickyRecyclerTouchListener(recyclerView, decor);
         recyclerView.addOnItemTouchListener(touchListener);
-        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
-            @Override
-            public void onChanged() {
-                decor.invalidateHeaders();
-                decor.invalidateFooters();
-            }
-        });
+        // The decoration observes the adapter itself and keeps its headers and footers up to date
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        decor.onTrimMemory(level);
     }
 
     private String[] getDummyDataSet() {
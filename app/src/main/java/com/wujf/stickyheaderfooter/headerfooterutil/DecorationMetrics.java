@@ -0,0 +1,203 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+/**
+ * Counters of the work done by the decoration over one frame: the time spent in onDrawOver and
+ * getItemOffsets, and how many headers and footers were created, bound and measured, looked up in
+ * their caches and had their id read from the adapter.
+ * <p>
+ * Only recorded while a {@link StickyMetricsListener} is attached; otherwise the decoration and its
+ * helpers hold no instance and skip the counting altogether. The names of the trace sections the
+ * decoration emits in system traces are also defined here.
+ */
+public class DecorationMetrics {
+
+    public static final String TRACE_DRAW_OVER = "StickyDecoration onDrawOver";
+    public static final String TRACE_ITEM_OFFSETS = "StickyDecoration getItemOffsets";
+    public static final String TRACE_CREATE = "StickyDecoration create";
+    public static final String TRACE_BIND = "StickyDecoration bind";
+    public static final String TRACE_MEASURE = "StickyDecoration measure";
+    public static final String TRACE_PREFETCH = "StickyDecoration prefetch";
+
+    private long mDrawOverNs;
+    private long mItemOffsetsNs;
+    private int mItemOffsetsCount;
+    private int mHeaderCreateCount;
+    private int mFooterCreateCount;
+    private int mHeaderBindCount;
+    private int mFooterBindCount;
+    private int mHeaderMeasureCount;
+    private int mFooterMeasureCount;
+    private int mHeaderCacheHitCount;
+    private int mFooterCacheHitCount;
+    private int mHeaderCacheMissCount;
+    private int mFooterCacheMissCount;
+    private int mHeaderIdCount;
+    private int mFooterIdCount;
+
+    public void recordDrawOver(long durationNs) {
+        mDrawOverNs += durationNs;
+    }
+
+    public void recordItemOffsets(long durationNs) {
+        mItemOffsetsNs += durationNs;
+        mItemOffsetsCount++;
+    }
+
+    public void recordCreate(boolean footer) {
+        if (footer) {
+            mFooterCreateCount++;
+        } else {
+            mHeaderCreateCount++;
+        }
+    }
+
+    public void recordBind(boolean footer) {
+        if (footer) {
+            mFooterBindCount++;
+        } else {
+            mHeaderBindCount++;
+        }
+    }
+
+    public void recordMeasure(boolean footer) {
+        if (footer) {
+            mFooterMeasureCount++;
+        } else {
+            mHeaderMeasureCount++;
+        }
+    }
+
+    public void recordCacheLookup(boolean footer, boolean hit) {
+        if (footer) {
+            if (hit) {
+                mFooterCacheHitCount++;
+            } else {
+                mFooterCacheMissCount++;
+            }
+        } else {
+            if (hit) {
+                mHeaderCacheHitCount++;
+            } else {
+                mHeaderCacheMissCount++;
+            }
+        }
+    }
+
+    /**
+     * Records a call to {@link StickyRecyclerAdapter#getHeaderId(int)}, or to getFooterId.
+     */
+    public void recordIdLookup(boolean footer) {
+        if (footer) {
+            mFooterIdCount++;
+        } else {
+            mHeaderIdCount++;
+        }
+    }
+
+    /**
+     * @return time spent in onDrawOver, in nanoseconds
+     */
+    public long getDrawOverNs() {
+        return mDrawOverNs;
+    }
+
+    /**
+     * @return time spent in getItemOffsets since the previous frame, over every item, in nanoseconds
+     */
+    public long getItemOffsetsNs() {
+        return mItemOffsetsNs;
+    }
+
+    /**
+     * @return number of getItemOffsets calls since the previous frame
+     */
+    public int getItemOffsetsCount() {
+        return mItemOffsetsCount;
+    }
+
+    public int getHeaderCreateCount() {
+        return mHeaderCreateCount;
+    }
+
+    public int getFooterCreateCount() {
+        return mFooterCreateCount;
+    }
+
+    public int getHeaderBindCount() {
+        return mHeaderBindCount;
+    }
+
+    public int getFooterBindCount() {
+        return mFooterBindCount;
+    }
+
+    public int getHeaderMeasureCount() {
+        return mHeaderMeasureCount;
+    }
+
+    public int getFooterMeasureCount() {
+        return mFooterMeasureCount;
+    }
+
+    public int getHeaderCacheHitCount() {
+        return mHeaderCacheHitCount;
+    }
+
+    public int getFooterCacheHitCount() {
+        return mFooterCacheHitCount;
+    }
+
+    public int getHeaderCacheMissCount() {
+        return mHeaderCacheMissCount;
+    }
+
+    public int getFooterCacheMissCount() {
+        return mFooterCacheMissCount;
+    }
+
+    /**
+     * @return number of adapter getHeaderId calls, a bulk read through {@link HeaderIdsAdapter}
+     * counting as one. Every id the decoration reads from the adapter is counted, those of the section
+     * indexes included; the view caches are keyed by these ids and read none of their own.
+     */
+    public int getHeaderIdCount() {
+        return mHeaderIdCount;
+    }
+
+    /**
+     * @return number of adapter getFooterId calls, counted like {@link #getHeaderIdCount()}
+     */
+    public int getFooterIdCount() {
+        return mFooterIdCount;
+    }
+
+    public void reset() {
+        mDrawOverNs = 0;
+        mItemOffsetsNs = 0;
+        mItemOffsetsCount = 0;
+        mHeaderCreateCount = 0;
+        mFooterCreateCount = 0;
+        mHeaderBindCount = 0;
+        mFooterBindCount = 0;
+        mHeaderMeasureCount = 0;
+        mFooterMeasureCount = 0;
+        mHeaderCacheHitCount = 0;
+        mFooterCacheHitCount = 0;
+        mHeaderCacheMissCount = 0;
+        mFooterCacheMissCount = 0;
+        mHeaderIdCount = 0;
+        mFooterIdCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DecorationMetrics[drawOverNs=" + mDrawOverNs + ", itemOffsetsNs=" + mItemOffsetsNs
+                + ", itemOffsets=" + mItemOffsetsCount
+                + ", headers: created=" + mHeaderCreateCount + ", bound=" + mHeaderBindCount
+                + ", measured=" + mHeaderMeasureCount + ", hits=" + mHeaderCacheHitCount
+                + ", misses=" + mHeaderCacheMissCount + ", ids=" + mHeaderIdCount
+                + ", footers: created=" + mFooterCreateCount + ", bound=" + mFooterBindCount
+                + ", measured=" + mFooterMeasureCount + ", hits=" + mFooterCacheHitCount
+                + ", misses=" + mFooterCacheMissCount + ", ids=" + mFooterIdCount + "]";
+    }
+}
@@ -0,0 +1,22 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerFootersAdapter} that can hand over its footer ids
+ * in bulk. The section index is then built from a few calls instead of one
+ * {@link StickyRecyclerFootersAdapter#getFooterId(int)} call per position, which matters for adapters
+ * backed by large columnar or database data sets.
+ * <p>
+ * An adapter that already knows its groups can skip reading ids altogether with
+ * {@link FooterSectionsAdapter}.
+ */
+public interface FooterIdsAdapter {
+
+    /**
+     * Copies the footer ids of a range of positions, the same ids getFooterId would return.
+     *
+     * @param from first position, inclusive
+     * @param to   last position, exclusive
+     * @param out  receives the id of position {@code from + i} at index i
+     */
+    void getFooterIds(int from, int to, long[] out);
+}
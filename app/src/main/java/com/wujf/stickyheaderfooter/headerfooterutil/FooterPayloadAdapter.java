@@ -0,0 +1,24 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerFootersAdapter} that can update a bound footer
+ * partially, the same way RecyclerView.Adapter#onBindViewHolder(ViewHolder, int, List) does for
+ * items. Used by {@link StickyRecyclerDecoration#invalidateSection(RecyclerView, int, Object)}.
+ */
+public interface FooterPayloadAdapter<VH extends RecyclerView.ViewHolder> {
+
+    /**
+     * Updates a footer already bound to the section of the position. With an empty payload list,
+     * a full bind is expected, as done by
+     * {@link StickyRecyclerFootersAdapter#onBindFooterViewHolder(RecyclerView.ViewHolder, int)}.
+     *
+     * @param holder   the view holder, bound to the same section before
+     * @param position the adapter position
+     * @param payloads the payloads pushed since the last bind; not to be kept after the call
+     */
+    void onBindFooterViewHolder(VH holder, int position, List<Object> payloads);
+}
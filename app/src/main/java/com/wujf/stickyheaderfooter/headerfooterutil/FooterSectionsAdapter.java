@@ -0,0 +1,27 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerFootersAdapter} that already knows its footer
+ * groups, like an adapter over grouped query results. The section index then copies the sections as
+ * they are, without reading any footer id. It can be implemented without {@link FooterIdsAdapter},
+ * whose bulk reads are only used when the sections aren't known.
+ */
+public interface FooterSectionsAdapter {
+
+    /**
+     * Returns the number of footer sections, so they can be copied with
+     * {@link #getFooterSections(int[], long[])} without reading any id.
+     *
+     * @return the number of sections, or -1 to have the ids read instead
+     */
+    int getFooterSectionCount();
+
+    /**
+     * Copies the sections counted by {@link #getFooterSectionCount()}, in position order. The first
+     * section starts at position 0, and two consecutive sections never share an id.
+     *
+     * @param starts receives the first position of every section
+     * @param ids    receives the footer id of every section
+     */
+    void getFooterSections(int[] starts, long[] ids);
+}
@@ -0,0 +1,16 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerFootersAdapter} that knows the size of its
+ * footers up front, see {@link HeaderSizeAdapter}.
+ */
+public interface FooterSizeAdapter {
+
+    /**
+     * Returns the space taken by a footer along the scroll axis, margins included.
+     *
+     * @param footerId id of the footer
+     * @return the size in pixels, or -1 to have the footer measured
+     */
+    int getFooterSizeHint(long footerId);
+}
@@ -0,0 +1,31 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerFootersAdapter} whose footers use several layouts.
+ * Recycled footer view holders are pooled by view type, so a holder is only rebound to a footer of
+ * the same type.
+ */
+public interface FooterViewTypeAdapter<VH extends RecyclerView.ViewHolder> {
+
+    /**
+     * Returns the view type of the footer associated with this item, the same way getItemViewType
+     * does in RecyclerView.Adapter.
+     *
+     * @param position the position of the view to get the footer view type of
+     * @return the footer view type
+     */
+    int getFooterViewType(int position);
+
+    /**
+     * Creates a new ViewHolder for a footer of the given view type. Used instead of
+     * {@link StickyRecyclerFootersAdapter#onCreateFooterViewHolder(ViewGroup)}.
+     *
+     * @param parent   the view to create a footer view holder for
+     * @param viewType the view type of the footer
+     * @return the view holder
+     */
+    VH onCreateFooterViewHolder(ViewGroup parent, int viewType);
+}
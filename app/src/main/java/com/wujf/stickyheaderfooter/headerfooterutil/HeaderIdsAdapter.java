@@ -0,0 +1,22 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerHeadersAdapter} that can hand over its header ids
+ * in bulk. The section index is then built from a few calls instead of one
+ * {@link StickyRecyclerHeadersAdapter#getHeaderId(int)} call per position, which matters for adapters
+ * backed by large columnar or database data sets.
+ * <p>
+ * An adapter that already knows its groups can skip reading ids altogether with
+ * {@link HeaderSectionsAdapter}.
+ */
+public interface HeaderIdsAdapter {
+
+    /**
+     * Copies the header ids of a range of positions, the same ids getHeaderId would return.
+     *
+     * @param from first position, inclusive
+     * @param to   last position, exclusive
+     * @param out  receives the id of position {@code from + i} at index i
+     */
+    void getHeaderIds(int from, int to, long[] out);
+}
@@ -1,16 +1,20 @@
 package com.wujf.stickyheaderfooter.headerfooterutil;
 
 import android.graphics.Rect;
+import android.support.v7.widget.GridLayoutManager;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
-import android.util.Log;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.LinearLayout;
 
+import com.wujf.stickyheaderfooter.core.SectionIds;
+import com.wujf.stickyheaderfooter.core.SectionIndex;
+import com.wujf.stickyheaderfooter.core.SectionStrategy;
+import com.wujf.stickyheaderfooter.core.StickyGeometry;
 import com.wujf.stickyheaderfooter.headerfooterutil.caching.FooterProvider;
 import com.wujf.stickyheaderfooter.headerfooterutil.caching.HeaderProvider;
 import com.wujf.stickyheaderfooter.headerfooterutil.calculation.DimensionCalculator;
+import com.wujf.stickyheaderfooter.headerfooterutil.calculation.LayoutSnapshot;
 import com.wujf.stickyheaderfooter.headerfooterutil.util.OrientationProvider;
 
 
@@ -24,6 +28,30 @@ public class HeaderPositionCalculator {
     private final HeaderProvider mHeaderProvider;
     private final DimensionCalculator mDimensionCalculator;
     private FooterProvider mFooterProvider;
+    private DecorationMetrics mMetrics;
+
+    /**
+     * Optional header and footer sections, a {@link SectionIndex} unless another strategy was set.
+     * When null, section boundaries are resolved by asking the adapter for ids.
+     */
+    private SectionStrategy mHeaderIndex;
+    private SectionStrategy mFooterIndex;
+
+    /**
+     * Section ids as seen by the Android-free searches of {@link StickyGeometry}.
+     */
+    private final SectionIds mHeaderIds = new SectionIds() {
+        @Override
+        public long getId(int position) {
+            return getHeaderId(position);
+        }
+    };
+    private final SectionIds mFooterIds = new SectionIds() {
+        @Override
+        public long getId(int position) {
+            return getFooterId(position);
+        }
+    };
 
     /**
      * The following fields are used as buffers for internal calculations. Their sole purpose is to avoid
@@ -41,45 +69,168 @@ public class HeaderPositionCalculator {
         mDimensionCalculator = dimensionCalculator;
     }
 
+    /**
+     * Enables or disables the section indexes. When enabled, header and footer boundaries are read
+     * from indexes built once from {@link StickyRecyclerAdapter#getHeaderId(int)} and
+     * {@link StickyRecyclerAdapter#getFooterId(int)} instead of calling the adapter for every check.
+     *
+     * @param enabled TRUE to resolve section boundaries through the indexes
+     */
+    public void setSectionIndexEnabled(boolean enabled) {
+        if (!enabled) {
+            mHeaderIndex = null;
+            mFooterIndex = null;
+            return;
+        }
+        if (mHeaderIndex == null) {
+            mHeaderIndex = new SectionIndex(new AdapterIdLookup(false));
+        }
+        if (mFooterIndex == null) {
+            mFooterIndex = new SectionIndex(new AdapterIdLookup(true));
+        }
+    }
+
+    /**
+     * Resolves the header sections through the given strategy instead of the section index.
+     *
+     * @param strategy the header sections, or null to ask the adapter for ids
+     */
+    public void setHeaderSectionStrategy(SectionStrategy strategy) {
+        mHeaderIndex = strategy;
+    }
+
+    public void setFooterSectionStrategy(SectionStrategy strategy) {
+        mFooterIndex = strategy;
+    }
+
+    /**
+     * @param metrics counters to record adapter id lookups into, or null to stop recording
+     */
+    public void setMetrics(DecorationMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * @return the header sections, or null if section indexes are disabled
+     */
+    public SectionStrategy getHeaderIndex() {
+        return mHeaderIndex;
+    }
+
+    /**
+     * @return the footer sections, or null if section indexes are disabled
+     */
+    public SectionStrategy getFooterIndex() {
+        return mFooterIndex;
+    }
+
+    public void invalidateHeaderIndex() {
+        if (mHeaderIndex != null) {
+            mHeaderIndex.invalidate();
+        }
+    }
+
+    public void invalidateFooterIndex() {
+        if (mFooterIndex != null) {
+            mFooterIndex.invalidate();
+        }
+    }
+
     /**
      * Determines if a view should have a sticky header.
      * The view has a sticky header if:
      * 1. It is the first element in the recycler view
      * 2. It has a valid ID associated to its position
      *
-     * @param itemView    given by the RecyclerView
-     * @param orientation of the Recyclerview
-     * @param position    of the list item in question
+     * @param snapshot layout of the RecyclerView for the current frame
+     * @param child    index of the child in question
      * @return True if the view should have a sticky header
      */
-    public boolean hasStickyHeader(View itemView, int orientation, int position) {
+    public boolean hasStickyHeader(LayoutSnapshot snapshot, int child) {
         int offset, margin;
-        mDimensionCalculator.initMargins(mTempRect1, itemView);
-        if (orientation == LinearLayout.VERTICAL) {
-            offset = itemView.getTop();
-            margin = mTempRect1.top;
+        if (snapshot.getOrientation() == LinearLayout.VERTICAL) {
+            offset = snapshot.getTop(child);
+            margin = snapshot.getTopMargin(child);
         } else {
-            offset = itemView.getLeft();
-            margin = mTempRect1.left;
+            offset = snapshot.getLeft(child);
+            margin = snapshot.getLeftMargin(child);
         }
+        int height = snapshot.getBottom(child) - snapshot.getTop(child);
 
-        return offset >= -itemView.getHeight() - mTempRect1.bottom && offset <= margin && mAdapter.getHeaderId(position) >= 0;
+        return offset >= -height - snapshot.getBottomMargin(child) && offset <= margin
+                && getHeaderId(snapshot.getPosition(child)) >= 0;
         //return offset <= margin&& mAdapter.getHeaderId(position) >= 0;
     }
 
-    public boolean hasStickyFooter(RecyclerView parent, View itemView, int orientation, int position) {
+    public boolean hasStickyFooter(LayoutSnapshot snapshot, int child) {
         int offset = 0, margin = 0;
-        mDimensionCalculator.initMargins(mTempRect1, itemView);
-        if (orientation == LinearLayout.VERTICAL) {
-            offset = itemView.getBottom();
-            margin = mTempRect1.bottom;
+        if (snapshot.getOrientation() == LinearLayout.VERTICAL) {
+            offset = snapshot.getBottom(child);
+            margin = snapshot.getBottomMargin(child);
         } else {
 
         }
-        return parent.getHeight() - margin <= offset && mAdapter.getHeaderId(position) >= 0;
+        return snapshot.getHeight() - margin <= offset && getFooterId(snapshot.getPosition(child)) >= 0;
     }
 
 
+    /**
+     * Finds the child that carries the sticky header, i.e. the first child for which
+     * {@link #hasStickyHeader(LayoutSnapshot, int)} is true.
+     *
+     * @return index of the child, or -1 if there is none
+     */
+    public int findStickyHeaderChild(LayoutSnapshot snapshot) {
+        if (snapshot.isStaggered()) {
+            // The topmost section is the one of the smallest first visible position among the spans
+            int position = snapshot.getFirstVisiblePosition();
+            if (position == RecyclerView.NO_POSITION || getHeaderId(position) < 0) {
+                return -1;
+            }
+            return snapshot.indexOfPosition(position);
+        }
+        int childCount = snapshot.getChildCount();
+        int from = 0;
+        if (snapshot.getOrientation() == LinearLayout.VERTICAL && snapshot.isOrderedAlongScrollAxis()) {
+            // A child can only carry the sticky header once its bottom edge has reached the top of the
+            // list, so skip the children above it.
+            from = StickyGeometry.findFirstChildEndingAt(snapshot.getEdges(), 0);
+        }
+        for (int i = from; i < childCount; i++) {
+            if (snapshot.getPosition(i) != RecyclerView.NO_POSITION && hasStickyHeader(snapshot, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the child that carries the sticky footer, i.e. the first child for which
+     * {@link #hasStickyFooter(LayoutSnapshot, int)} is true.
+     *
+     * @return index of the child, or -1 if there is none
+     */
+    public int findStickyFooterChild(LayoutSnapshot snapshot) {
+        if (snapshot.isStaggered()) {
+            int position = snapshot.getLastVisiblePosition();
+            if (position == RecyclerView.NO_POSITION || getFooterId(position) < 0) {
+                return -1;
+            }
+            return snapshot.indexOfPosition(position);
+        }
+        int childCount = snapshot.getChildCount();
+        int from = 0;
+        if (snapshot.getOrientation() == LinearLayout.VERTICAL && snapshot.isOrderedAlongScrollAxis()) {
+            from = StickyGeometry.findFirstChildEndingAt(snapshot.getEdges(), snapshot.getHeight());
+        }
+        for (int i = from; i < childCount; i++) {
+            if (snapshot.getPosition(i) != RecyclerView.NO_POSITION && hasStickyFooter(snapshot, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Determines if an item in the list should have a header that is different than the item in the
      * list that immediately precedes it. Items with no headers will always return false.
@@ -89,11 +240,14 @@ public class HeaderPositionCalculator {
      * @return true if this item has a different header than the previous item in the list
      */
     public boolean hasNewHeader(int position, boolean isReverseLayout) {
+        if (mHeaderIndex != null) {
+            return mHeaderIndex.isBoundary(position, isReverseLayout);
+        }
         if (indexOutOfBounds(position)) {
             return false;
         }
 
-        long headerId = mAdapter.getHeaderId(position);
+        long headerId = readHeaderId(position);
 
         if (headerId < 0) {
             return false;
@@ -102,100 +256,360 @@ public class HeaderPositionCalculator {
         long nextItemHeaderId = -1;
         int nextItemPosition = position + (isReverseLayout ? 1 : -1);
         if (!indexOutOfBounds(nextItemPosition)) {
-            nextItemHeaderId = mAdapter.getHeaderId(nextItemPosition);
+            nextItemHeaderId = readHeaderId(nextItemPosition);
         }
-        return headerId != nextItemHeaderId;
+        return StickyGeometry.isSectionBoundary(headerId, nextItemHeaderId);
     }
 
+    /**
+     * Determines if an item in the list should have a footer that is different than the item in the
+     * list that immediately follows it. Items with no footers will always return false.
+     *
+     * @param position        of the list item in questions
+     * @param isReverseLayout TRUE if layout manager has flag isReverseLayout
+     * @return true if this item has a different footer than the next item in the list
+     */
     public boolean hasNewFooter(int position, boolean isReverseLayout) {
+        if (mFooterIndex != null) {
+            return mFooterIndex.isBoundary(position, !isReverseLayout);
+        }
         if (indexOutOfBounds(position)) {
             return false;
         }
 
-        long headerId = mAdapter.getHeaderId(position);
+        long footerId = readFooterId(position);
 
-        if (headerId < 0) {
+        if (footerId < 0) {
             return false;
         }
 
-        long nextItemHeaderId = -1;
+        long nextItemFooterId = -1;
         int nextItemPosition = position + (isReverseLayout ? -1 : 1);
         if (!indexOutOfBounds(nextItemPosition)) {
-            nextItemHeaderId = mAdapter.getHeaderId(nextItemPosition);
+            nextItemFooterId = readFooterId(nextItemPosition);
+        }
+        return StickyGeometry.isSectionBoundary(footerId, nextItemFooterId);
+    }
+
+    /**
+     * Determines if an item must leave room for a header. In a list, that is the item with a new
+     * header; in a grid, every item on the first row of a section, so the whole row moves down.
+     * <p>
+     * Sections of a grid are expected to start on a new row.
+     *
+     * @param snapshot layout of the RecyclerView, its orientation at least
+     * @param position of the list item in question
+     * @return true if the item must be offset by the height of its header
+     */
+    public boolean needsHeaderSpace(LayoutSnapshot snapshot, int position) {
+        GridLayoutManager.SpanSizeLookup spanSizeLookup = snapshot.getSpanSizeLookup();
+        if (spanSizeLookup == null || snapshot.isReverseLayout()) {
+            return hasNewHeader(position, snapshot.isReverseLayout());
+        }
+        if (indexOutOfBounds(position)) {
+            return false;
+        }
+        long headerId = getHeaderId(position);
+        if (headerId < 0) {
+            return false;
+        }
+        // Walk back to the first item of the section, giving up as soon as the items walked over
+        // can't fit in a single row. Bounded by the span count, whatever the size of the grid.
+        // Next to unknown ids there is no boundary to stop at, so the walk also stops at the
+        // first item of another section and at the start of the adapter.
+        int spanCount = snapshot.getSpanCount();
+        int spans = spanSizeLookup.getSpanSize(position);
+        int first = position;
+        while (!hasNewHeader(first, false)) {
+            if (first == 0 || getHeaderId(first - 1) != headerId) {
+                return false;
+            }
+            first--;
+            spans += spanSizeLookup.getSpanSize(first);
+            if (spans > spanCount) {
+                return false;
+            }
+        }
+        return spanSizeLookup.getSpanIndex(first, spanCount) + spans <= spanCount;
+    }
+
+    /**
+     * Determines if an item must leave room for a footer: the item with a new footer in a list, every
+     * item on the last row of a section in a grid.
+     *
+     * @param snapshot layout of the RecyclerView, its orientation at least
+     * @param position of the list item in question
+     * @return true if the item must be offset by the height of its footer
+     */
+    public boolean needsFooterSpace(LayoutSnapshot snapshot, int position) {
+        GridLayoutManager.SpanSizeLookup spanSizeLookup = snapshot.getSpanSizeLookup();
+        if (spanSizeLookup == null || snapshot.isReverseLayout()) {
+            return hasNewFooter(position, snapshot.isReverseLayout());
+        }
+        if (indexOutOfBounds(position)) {
+            return false;
+        }
+        long footerId = getFooterId(position);
+        if (footerId < 0) {
+            return false;
+        }
+        int spanCount = snapshot.getSpanCount();
+        int spans = spanSizeLookup.getSpanSize(position);
+        int last = position;
+        while (!hasNewFooter(last, false)) {
+            if (last + 1 >= mAdapter.getItemCount() || getFooterId(last + 1) != footerId) {
+                return false;
+            }
+            last++;
+            spans += spanSizeLookup.getSpanSize(last);
+            if (spans > spanCount) {
+                return false;
+            }
+        }
+        return spanSizeLookup.getSpanIndex(position, spanCount) + spans <= spanCount;
+    }
+
+    /**
+     * @return the header id of an item, read from the section index when enabled
+     */
+    public long getHeaderId(int position) {
+        return mHeaderIndex != null ? mHeaderIndex.getId(position) : readHeaderId(position);
+    }
+
+    /**
+     * @return the footer id of an item, read from the section index when enabled
+     */
+    public long getFooterId(int position) {
+        return mFooterIndex != null ? mFooterIndex.getId(position) : readFooterId(position);
+    }
+
+    /**
+     * Reads a header id from the adapter, every adapter read of the calculator and its indexes goes
+     * through here to be counted.
+     */
+    private long readHeaderId(int position) {
+        if (mMetrics != null) {
+            mMetrics.recordIdLookup(false);
+        }
+        return mAdapter.getHeaderId(position);
+    }
+
+    private long readFooterId(int position) {
+        if (mMetrics != null) {
+            mMetrics.recordIdLookup(true);
+        }
+        return mAdapter.getFooterId(position);
+    }
+
+    /**
+     * Feeds the section indexes from the adapter, in bulk when it implements
+     * {@link HeaderIdsAdapter} (or {@link FooterIdsAdapter}), one position at a time otherwise. An
+     * adapter implementing {@link HeaderSectionsAdapter} (or {@link FooterSectionsAdapter}) hands over
+     * its sections without any id being read.
+     */
+    private class AdapterIdLookup implements SectionIndex.IdLookup {
+
+        private final boolean mFooter;
+
+        AdapterIdLookup(boolean footer) {
+            mFooter = footer;
+        }
+
+        @Override
+        public long getId(int position) {
+            return mFooter ? readFooterId(position) : readHeaderId(position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mAdapter.getItemCount();
+        }
+
+        @Override
+        public void getIds(int from, int to, long[] out) {
+            if (!mFooter && mAdapter instanceof HeaderIdsAdapter) {
+                recordBulkRead();
+                ((HeaderIdsAdapter) mAdapter).getHeaderIds(from, to, out);
+            } else if (mFooter && mAdapter instanceof FooterIdsAdapter) {
+                recordBulkRead();
+                ((FooterIdsAdapter) mAdapter).getFooterIds(from, to, out);
+            } else {
+                for (int position = from; position < to; position++) {
+                    out[position - from] = getId(position);
+                }
+            }
+        }
+
+        @Override
+        public int getSectionCount() {
+            if (!mFooter && mAdapter instanceof HeaderSectionsAdapter) {
+                return ((HeaderSectionsAdapter) mAdapter).getHeaderSectionCount();
+            } else if (mFooter && mAdapter instanceof FooterSectionsAdapter) {
+                return ((FooterSectionsAdapter) mAdapter).getFooterSectionCount();
+            }
+            return -1;
+        }
+
+        @Override
+        public void getSections(int[] starts, long[] ids) {
+            recordBulkRead();
+            if (mFooter) {
+                ((FooterSectionsAdapter) mAdapter).getFooterSections(starts, ids);
+            } else {
+                ((HeaderSectionsAdapter) mAdapter).getHeaderSections(starts, ids);
+            }
+        }
+
+        private void recordBulkRead() {
+            if (mMetrics != null) {
+                mMetrics.recordIdLookup(mFooter);
+            }
         }
-        return headerId != nextItemHeaderId;
     }
 
     private boolean indexOutOfBounds(int position) {
         return position < 0 || position >= mAdapter.getItemCount();
     }
 
-    public void initHeaderBounds(Rect bounds, RecyclerView recyclerView, View header, View firstView, boolean firstHeader) {
-        int orientation = mOrientationProvider.getOrientation(recyclerView);
-        initDefaultHeaderOffset(bounds, recyclerView, header, firstView, orientation);
-        if (firstHeader && isStickyHeaderBeingPushedOffscreen(recyclerView, header)) {
-            View lastViewObscuredByHeader = getLastViewObscuredByHeader(recyclerView, header);
-            translateHeaderWithLastViewObscureByHeader(recyclerView, mOrientationProvider.getOrientation(recyclerView), bounds,
-                    header, lastViewObscuredByHeader);
+    /**
+     * Initializes the bounds of a header drawn above a child, pushing the sticky header out of the
+     * way of the next section when they meet.
+     *
+     * @param bounds      rect to populate
+     * @param snapshot    layout of the RecyclerView for the current frame
+     * @param header      header view to position
+     * @param child       index of the child the header belongs to
+     * @param firstHeader TRUE if this is the sticky header
+     */
+    public void initHeaderBounds(Rect bounds, LayoutSnapshot snapshot, View header, int child, boolean firstHeader) {
+        if (firstHeader && snapshot.isStaggered()) {
+            initStaggeredStickyHeaderBounds(bounds, snapshot, header, child);
+            return;
+        }
+        initDefaultHeaderOffset(bounds, snapshot, header, child);
+        if (firstHeader) {
+            int lastChildObscuredByHeader = getLastChildObscuredByHeader(snapshot, header, child);
+            if (isStickyHeaderBeingPushedOffscreen(snapshot, header, lastChildObscuredByHeader)) {
+                translateHeaderWithLastViewObscureByHeader(snapshot, bounds, header, lastChildObscuredByHeader);
+            }
         }
     }
 
-    public void initFooterBounds(Rect bounds, RecyclerView recyclerView, View footer, View firstView, boolean firstFooter) {
-        int orientation = mOrientationProvider.getOrientation(recyclerView);
-        initDefaultFooterOffset(bounds, recyclerView, footer, firstView, orientation);
-        if (firstFooter && isStickyFooterBeingPushedOffscreen(recyclerView, footer)) {
-            View lastViewObscuredByFooter = getLastViewObscuredByFooter(recyclerView, footer);
-            translateFooterWithLastViewObscureByHeader(recyclerView, mOrientationProvider.getOrientation(recyclerView), bounds,
-                    footer, lastViewObscuredByFooter);
+    public void initFooterBounds(Rect bounds, LayoutSnapshot snapshot, View footer, int child, boolean firstFooter) {
+        initDefaultFooterOffset(bounds, snapshot, footer, child);
+        if (firstFooter && snapshot.isStaggered()) {
+            return;
+        }
+        if (firstFooter) {
+            int lastChildObscuredByFooter = getLastChildObscuredByFooter(snapshot, footer, child);
+            if (isStickyFooterBeingPushedOffscreen(snapshot, footer, lastChildObscuredByFooter)) {
+                translateFooterWithLastViewObscureByHeader(snapshot, bounds, footer, lastChildObscuredByFooter);
+            }
         }
     }
 
-    private void initDefaultHeaderOffset(Rect headerMargins, RecyclerView recyclerView, View header, View firstView, int orientation) {
-        int translationX, translationY;
+    /**
+     * Initializes the bounds of the sticky header of a staggered grid. The header is aligned with the
+     * list rather than with the span of the child carrying it, and is pushed out by the header of the
+     * next section, which sits on the lowest span edge of the sticky section.
+     */
+    private void initStaggeredStickyHeaderBounds(Rect bounds, LayoutSnapshot snapshot, View header, int child) {
         mDimensionCalculator.initMargins(mTempRect1, header);
+        boolean vertical = snapshot.getOrientation() == LinearLayoutManager.VERTICAL;
+        int translationX, translationY;
+        if (vertical) {
+            translationX = snapshot.getPaddingLeft() + mTempRect1.left;
+            translationY = StickyGeometry.headerStart(snapshot.getEdges().getStart(child), header.getHeight(),
+                    mTempRect1.top, mTempRect1.bottom, snapshot.getListTop());
+        } else {
+            translationY = snapshot.getPaddingTop() + mTempRect1.top;
+            translationX = StickyGeometry.headerStart(snapshot.getEdges().getStart(child), header.getWidth(),
+                    mTempRect1.left, mTempRect1.right, snapshot.getListLeft());
+        }
+        bounds.set(translationX, translationY, translationX + header.getWidth(), translationY + header.getHeight());
+
+        if (snapshot.isReverseLayout()) {
+            return;
+        }
+        int nextPosition = findNextHeaderPosition(snapshot, snapshot.getPosition(child));
+        int nextChild = nextPosition == RecyclerView.NO_POSITION ? -1 : snapshot.indexOfPosition(nextPosition);
+        if (nextChild < 0) {
+            return;
+        }
+        View nextHeader = mHeaderProvider.getHeader(snapshot.getParent(), nextPosition,
+                getHeaderId(nextPosition));
+        mDimensionCalculator.initMargins(mTempRect2, nextHeader);
+        int nextStart = snapshot.getEdges().getStart(nextChild);
+        if (vertical) {
+            int topOfNextHeader = nextStart - nextHeader.getHeight() - mTempRect2.bottom - mTempRect2.top;
+            bounds.offset(0, -StickyGeometry.pushOffOverlap(bounds.bottom, mTempRect1.bottom, topOfNextHeader));
+        } else {
+            int leftOfNextHeader = nextStart - nextHeader.getWidth() - mTempRect2.right - mTempRect2.left;
+            bounds.offset(-StickyGeometry.pushOffOverlap(bounds.right, mTempRect1.right, leftOfNextHeader), 0);
+        }
+    }
 
-        ViewGroup.LayoutParams layoutParams = firstView.getLayoutParams();
-        int leftMargin = 0;
-        int topMargin = 0;
-        if (layoutParams instanceof ViewGroup.MarginLayoutParams) {
-            ViewGroup.MarginLayoutParams marginLayoutParams = (ViewGroup.MarginLayoutParams) layoutParams;
-            leftMargin = marginLayoutParams.leftMargin;
-            topMargin = marginLayoutParams.topMargin;
+    /**
+     * @return the first position after the given one that starts a section with a header, looking no
+     * further than the visible items, or {@link RecyclerView#NO_POSITION}
+     */
+    private int findNextHeaderPosition(LayoutSnapshot snapshot, int position) {
+        int lastPosition = snapshot.getMaxPosition();
+        if (mHeaderIndex != null) {
+            int next = mHeaderIndex.getNextSectionStart(position);
+            while (next != -1 && next <= lastPosition) {
+                if (mHeaderIndex.isBoundary(next, false)) {
+                    return next;
+                }
+                next = mHeaderIndex.getNextSectionStart(next);
+            }
+            return RecyclerView.NO_POSITION;
+        }
+        for (int next = position + 1; next <= lastPosition; next++) {
+            if (hasNewHeader(next, false)) {
+                return next;
+            }
         }
+        return RecyclerView.NO_POSITION;
+    }
 
-        if (orientation == LinearLayoutManager.VERTICAL) {
-            translationX = firstView.getLeft() - leftMargin + mTempRect1.left;
-            translationY = Math.max(
-                    firstView.getTop() - topMargin - header.getHeight() - mTempRect1.bottom,
-                    getListTop(recyclerView) + mTempRect1.top);
+    private void initDefaultHeaderOffset(Rect headerMargins, LayoutSnapshot snapshot, View header, int child) {
+        int translationX, translationY;
+        mDimensionCalculator.initMargins(mTempRect1, header);
+
+        int leftMargin = snapshot.getLeftMargin(child);
+        int topMargin = snapshot.getTopMargin(child);
+        // The child of a grid may sit in any span, the header is aligned with the list instead
+        boolean grid = snapshot.getSpanCount() > 1;
+
+        if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+            translationX = grid ? snapshot.getPaddingLeft() + mTempRect1.left
+                    : snapshot.getLeft(child) - leftMargin + mTempRect1.left;
+            translationY = StickyGeometry.headerStart(snapshot.getTop(child) - topMargin, header.getHeight(),
+                    mTempRect1.top, mTempRect1.bottom, snapshot.getListTop());
         } else {
-            translationY = firstView.getTop() - topMargin + mTempRect1.top;
-            translationX = Math.max(
-                    firstView.getLeft() - leftMargin - header.getWidth() - mTempRect1.right,
-                    getListLeft(recyclerView) + mTempRect1.left);
+            translationY = grid ? snapshot.getPaddingTop() + mTempRect1.top
+                    : snapshot.getTop(child) - topMargin + mTempRect1.top;
+            translationX = StickyGeometry.headerStart(snapshot.getLeft(child) - leftMargin, header.getWidth(),
+                    mTempRect1.left, mTempRect1.right, snapshot.getListLeft());
         }
 
         headerMargins.set(translationX, translationY, translationX + header.getWidth(),
                 translationY + header.getHeight());
     }
 
-    private void initDefaultFooterOffset(Rect footerMargins, RecyclerView recyclerView, View footer, View firstView, int orientation) {
+    private void initDefaultFooterOffset(Rect footerMargins, LayoutSnapshot snapshot, View footer, int child) {
         int translationX = -1, translationY = -1;
         mDimensionCalculator.initMargins(mTempRect1, footer);
-        ViewGroup.LayoutParams layoutParams = firstView.getLayoutParams();
-        int leftMargin = 0;
-        int bottomMargin = 0;
-        if (layoutParams instanceof ViewGroup.MarginLayoutParams) {
-            ViewGroup.MarginLayoutParams marginLayoutParams = (ViewGroup.MarginLayoutParams) layoutParams;
-            leftMargin = marginLayoutParams.leftMargin;
-            bottomMargin = marginLayoutParams.bottomMargin;
-        }
-
-        if (orientation == LinearLayoutManager.VERTICAL) {
-            translationX = firstView.getLeft() - leftMargin + mTempRect1.left;
-            translationY = Math.min(
-                    firstView.getBottom() + bottomMargin + mTempRect1.top + footer.getHeight(),
-                    getListBottom(recyclerView) - mTempRect1.bottom);
+        int leftMargin = snapshot.getLeftMargin(child);
+        int bottomMargin = snapshot.getBottomMargin(child);
+
+        if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+            // The last item of a section may sit in any span of a grid, align the footer with the list
+            translationX = snapshot.getSpanCount() > 1 ? snapshot.getPaddingLeft() + mTempRect1.left
+                    : snapshot.getLeft(child) - leftMargin + mTempRect1.left;
+            translationY = StickyGeometry.footerEnd(snapshot.getBottom(child) + bottomMargin, footer.getHeight(),
+                    mTempRect1.top, mTempRect1.bottom, snapshot.getListBottom());
         } else {
 //      translationY = firstView.getTop() - topMargin + mTempRect1.top;
 //      translationX = Math.max(
@@ -206,56 +620,26 @@ public class HeaderPositionCalculator {
                 translationY);
     }
 
-    //  private boolean isStickyHeaderBeingPushedOffscreen(RecyclerView recyclerView, View stickyHeader) {
-//    View viewAfterHeader = getFirstViewUnobscuredByHeader(recyclerView, stickyHeader);
-//    int firstViewUnderHeaderPosition = recyclerView.getChildAdapterPosition(viewAfterHeader);
-//    if (firstViewUnderHeaderPosition == RecyclerView.NO_POSITION) {
-//        return false;
-//    }
-//
-//    boolean isReverseLayout = mOrientationProvider.isReverseLayout(recyclerView);
-//    if (firstViewUnderHeaderPosition > 0 && hasNewHeader(firstViewUnderHeaderPosition, isReverseLayout)) {
-//      View nextHeader = mHeaderProvider.getHeader(recyclerView, firstViewUnderHeaderPosition);
-//      mDimensionCalculator.initMargins(mTempRect1, nextHeader);
-//      mDimensionCalculator.initMargins(mTempRect2, stickyHeader);
-//
-//      if (mOrientationProvider.getOrientation(recyclerView) == LinearLayoutManager.VERTICAL) {
-//        int topOfNextHeader = viewAfterHeader.getTop() - mTempRect1.bottom - nextHeader.getHeight() - mTempRect1.top;
-//        int bottomOfThisHeader = recyclerView.getPaddingTop() + stickyHeader.getBottom() + mTempRect2.top + mTempRect2.bottom;
-//        if (topOfNextHeader < bottomOfThisHeader) {
-//          return true;
-//        }
-//      } else {
-//        int leftOfNextHeader = viewAfterHeader.getLeft() - mTempRect1.right - nextHeader.getWidth() - mTempRect1.left;
-//        int rightOfThisHeader = recyclerView.getPaddingLeft() + stickyHeader.getRight() + mTempRect2.left + mTempRect2.right;
-//        if (leftOfNextHeader < rightOfThisHeader) {
-//          return true;
-//        }
-//      }
-//    }
-//
-//
-//    return false;
-//  }
-    private boolean isStickyHeaderBeingPushedOffscreen(RecyclerView recyclerView, View stickyHeader) {
-        View viewAfterHeader = getLastViewObscuredByHeader(recyclerView, stickyHeader);
-        int lastViewUnderHeaderPosition = recyclerView.getChildAdapterPosition(viewAfterHeader);
+    private boolean isStickyHeaderBeingPushedOffscreen(LayoutSnapshot snapshot, View stickyHeader, int lastChildUnderHeader) {
+        if (lastChildUnderHeader < 0) {
+            return false;
+        }
+        int lastViewUnderHeaderPosition = snapshot.getPosition(lastChildUnderHeader);
         if (lastViewUnderHeaderPosition == RecyclerView.NO_POSITION) {
             return false;
         }
-        boolean isReverseLayout = mOrientationProvider.isReverseLayout(recyclerView);
-        boolean hasNewFooter = hasNewFooter(lastViewUnderHeaderPosition, isReverseLayout);
+        boolean hasNewFooter = hasNewFooter(lastViewUnderHeaderPosition, snapshot.isReverseLayout());
         if (lastViewUnderHeaderPosition > 0 && hasNewFooter) {
-            View nextFooter = mFooterProvider.getFooter(recyclerView, lastViewUnderHeaderPosition);
+            View nextFooter = mFooterProvider.getFooter(snapshot.getParent(), lastViewUnderHeaderPosition,
+                    getFooterId(lastViewUnderHeaderPosition));
             mDimensionCalculator.initMargins(mTempRect1, nextFooter);
             mDimensionCalculator.initMargins(mTempRect2, stickyHeader);
 
-            if (mOrientationProvider.getOrientation(recyclerView) == LinearLayoutManager.VERTICAL) {
-                int topOfNextFooter = viewAfterHeader.getBottom() + mTempRect1.top;
-                int bottomOfThisHeader = recyclerView.getPaddingTop() + stickyHeader.getBottom() + mTempRect2.top + mTempRect2.bottom;
+            if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+                int topOfNextFooter = snapshot.getBottom(lastChildUnderHeader) + mTempRect1.top;
+                int bottomOfThisHeader = snapshot.getPaddingTop() + stickyHeader.getBottom() + mTempRect2.top + mTempRect2.bottom;
                 if (topOfNextFooter < bottomOfThisHeader) {
                     return true;
-//        }
                 }
             } else {
 //        int leftOfNextHeader = viewAfterHeader.getLeft() - mTempRect1.right - nextHeader.getWidth() - mTempRect1.left;
@@ -268,33 +652,24 @@ public class HeaderPositionCalculator {
         return false;
     }
 
-    private boolean isStickyFooterBeingPushedOffscreen(RecyclerView recyclerView, View stickyFooter) {
-        View lastViewObscuredByFooter = getLastViewObscuredByFooter(recyclerView, stickyFooter);
-        int lastViewObscuredByFooterPostion = recyclerView.getChildAdapterPosition(lastViewObscuredByFooter);
+    private boolean isStickyFooterBeingPushedOffscreen(LayoutSnapshot snapshot, View stickyFooter, int lastChildObscuredByFooter) {
+        if (lastChildObscuredByFooter < 0) {
+            return false;
+        }
+        int lastViewObscuredByFooterPostion = snapshot.getPosition(lastChildObscuredByFooter);
         if (lastViewObscuredByFooterPostion == RecyclerView.NO_POSITION) {
             return false;
         }
-        boolean isReverseLayout = mOrientationProvider.isReverseLayout(recyclerView);
-        boolean hasNewHeader = hasNewHeader(lastViewObscuredByFooterPostion, isReverseLayout);
+        boolean hasNewHeader = hasNewHeader(lastViewObscuredByFooterPostion, snapshot.isReverseLayout());
         if (lastViewObscuredByFooterPostion > 0 && hasNewHeader) {
-            View nextHeader = mHeaderProvider.getHeader(recyclerView, lastViewObscuredByFooterPostion);
-            mDimensionCalculator.initMargins(mTempRect1, nextHeader);
             mDimensionCalculator.initMargins(mTempRect2, stickyFooter);
-            ViewGroup.LayoutParams layoutParams = lastViewObscuredByFooter.getLayoutParams();
-            int leftMargin = 0;
-            int topMargin = 0;
-            if (layoutParams instanceof ViewGroup.MarginLayoutParams) {
-                ViewGroup.MarginLayoutParams marginLayoutParams = (ViewGroup.MarginLayoutParams) layoutParams;
-                leftMargin = marginLayoutParams.leftMargin;
-                topMargin = marginLayoutParams.topMargin;
-            }
-            if (mOrientationProvider.getOrientation(recyclerView) == LinearLayoutManager.VERTICAL) {
-                int bottomOfNextHeader = lastViewObscuredByFooter.getTop() - topMargin;
+            int topMargin = snapshot.getTopMargin(lastChildObscuredByFooter);
+            if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+                int bottomOfNextHeader = snapshot.getTop(lastChildObscuredByFooter) - topMargin;
                 int footerHeight = stickyFooter.getHeight();
-                int topOfThisFooter = getListBottom(recyclerView) - footerHeight - mTempRect2.bottom - mTempRect2.top;
+                int topOfThisFooter = snapshot.getListBottom() - footerHeight - mTempRect2.bottom - mTempRect2.top;
                 if (topOfThisFooter < bottomOfNextHeader) {
                     return true;
-//        }
                 }
             } else {
 //        int leftOfNextHeader = viewAfterHeader.getLeft() - mTempRect1.right - nextHeader.getWidth() - mTempRect1.left;
@@ -309,198 +684,181 @@ public class HeaderPositionCalculator {
         return false;
     }
 
-    private void translateHeaderWithNextHeader(RecyclerView recyclerView, int orientation, Rect translation,
-                                               View currentHeader, View viewAfterNextHeader, View nextHeader) {
-        mDimensionCalculator.initMargins(mTempRect1, nextHeader);
-        mDimensionCalculator.initMargins(mTempRect2, currentHeader);
-        if (orientation == LinearLayoutManager.VERTICAL) {
-            int topOfStickyHeader = getListTop(recyclerView) + mTempRect2.top + mTempRect2.bottom;
-            int shiftFromNextHeader = viewAfterNextHeader.getTop() - nextHeader.getHeight() - mTempRect1.bottom - mTempRect1.top - currentHeader.getHeight() - topOfStickyHeader;
-            if (shiftFromNextHeader < topOfStickyHeader) {
-                translation.top += shiftFromNextHeader;
-            }
-        } else {
-            int leftOfStickyHeader = getListLeft(recyclerView) + mTempRect2.left + mTempRect2.right;
-            int shiftFromNextHeader = viewAfterNextHeader.getLeft() - nextHeader.getWidth() - mTempRect1.right - mTempRect1.left - currentHeader.getWidth() - leftOfStickyHeader;
-            if (shiftFromNextHeader < leftOfStickyHeader) {
-                translation.left += shiftFromNextHeader;
-            }
-        }
-    }
-
-    private void translateHeaderWithLastViewObscureByHeader(RecyclerView recyclerView, int orientation, Rect translation, View currentHeader, View lastViewUnderHeader) {
+    private void translateHeaderWithLastViewObscureByHeader(LayoutSnapshot snapshot, Rect translation, View currentHeader, int lastChildUnderHeader) {
         mDimensionCalculator.initMargins(mTempRect2, currentHeader);
-        if (orientation == LinearLayoutManager.VERTICAL) {
-            int shiftFromlastViewUnderHeader = lastViewUnderHeader.getBottom() + mTempRect2.bottom - currentHeader.getHeight() - getListTop(recyclerView) - mTempRect2.top - mTempRect2.bottom;
-            translation.top += shiftFromlastViewUnderHeader;
+        if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+            translation.top += StickyGeometry.headerPushShift(snapshot.getBottom(lastChildUnderHeader),
+                    currentHeader.getHeight(), mTempRect2.top, snapshot.getListTop());
         } else {
 
         }
     }
 
-    private void translateFooterWithLastViewObscureByHeader(RecyclerView recyclerView, int orientation, Rect translation, View currentFooter, View lastViewUnderFooter) {
+    private void translateFooterWithLastViewObscureByHeader(LayoutSnapshot snapshot, Rect translation, View currentFooter, int lastChildUnderFooter) {
         mDimensionCalculator.initMargins(mTempRect2, currentFooter);
-        if (orientation == LinearLayoutManager.VERTICAL) {
-            ViewGroup.LayoutParams layoutParams = lastViewUnderFooter.getLayoutParams();
-            int leftMargin = 0;
-            int topMargin = 0;
-            if (layoutParams instanceof ViewGroup.MarginLayoutParams) {
-                ViewGroup.MarginLayoutParams marginLayoutParams = (ViewGroup.MarginLayoutParams) layoutParams;
-                leftMargin = marginLayoutParams.leftMargin;
-                topMargin = marginLayoutParams.bottomMargin;
-            }
-//      int shiftFromlastViewUnderFooter = lastViewUnderFooter.getBottom()+mTempRect2.bottom-(getListBottom(recyclerView)- currentFooter.getHeight()-mTempRect2.bottom-mTempRect2.top);
-            int shiftFormlastViewUnderFooter = lastViewUnderFooter.getTop() - topMargin - (getListBottom(recyclerView) - currentFooter.getHeight() - mTempRect2.bottom - mTempRect2.top);
-            if (shiftFormlastViewUnderFooter > 0) {
-                translation.top += shiftFormlastViewUnderFooter;
-            }
+        if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+            int bottomMargin = snapshot.getBottomMargin(lastChildUnderFooter);
+            translation.top += StickyGeometry.footerPushShift(snapshot.getTop(lastChildUnderFooter) - bottomMargin,
+                    currentFooter.getHeight(), mTempRect2.top, mTempRect2.bottom, snapshot.getListBottom());
 
         } else {
 
         }
     }
 
-
     /**
-     * Returns the first item currently in the RecyclerView that is not obscured by a header.
+     * Returns the last child currently in the RecyclerView that is obscured by the sticky header.
+     * When the children are laid out in order, this is a binary search over their edges and the
+     * section boundaries; otherwise every child is tested.
      *
-     * @param parent Recyclerview containing all the list items
-     * @return first item that is fully beneath a header
+     * @param snapshot    layout of the RecyclerView for the current frame
+     * @param header      the sticky header
+     * @param stickyChild index of the child carrying the sticky header
+     * @return index of the last obscured child, or -1 if there is none
      */
-    private View getFirstViewUnobscuredByHeader(RecyclerView parent, View firstHeader) {
-        boolean isReverseLayout = mOrientationProvider.isReverseLayout(parent);
+    private int getLastChildObscuredByHeader(LayoutSnapshot snapshot, View header, int stickyChild) {
+        mDimensionCalculator.initMargins(mTempRect1, header);
+        long headerId = getHeaderId(snapshot.getPosition(stickyChild));
+        int headerEdge;
+        if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+            headerEdge = snapshot.getListTop() + header.getBottom() + mTempRect1.bottom + mTempRect1.top;
+        } else {
+            headerEdge = snapshot.getListLeft() + header.getRight() + mTempRect1.right + mTempRect1.left;
+        }
+        int childCount = snapshot.getChildCount();
+
+        // Obscured children are the leading children of the sticky section that start before the header
+        // edge; both conditions hold for a prefix of the children only if the first child is in the
+        // sticky section. Otherwise, like a leading item without a header, it ends the scan at once.
+        if (canSearchChildren(snapshot) && getHeaderId(snapshot.getPosition(0)) == headerId) {
+            int firstUnobscured = Math.min(countLeadingChildrenInSection(snapshot, headerId, false),
+                    StickyGeometry.findFirstChildStartingAt(snapshot.getEdges(), headerEdge));
+            return firstUnobscured < childCount ? firstUnobscured - 1 : -1;
+        }
+
+        boolean isReverseLayout = snapshot.isReverseLayout();
         int step = isReverseLayout ? -1 : 1;
-        int from = isReverseLayout ? parent.getChildCount() - 1 : 0;
-        for (int i = from; i >= 0 && i <= parent.getChildCount() - 1; i += step) {
-            View child = parent.getChildAt(i);
-            if (!itemIsObscuredByHeader(parent, child, firstHeader, mOrientationProvider.getOrientation(parent))) {
-                return child;
+        int from = isReverseLayout ? childCount - 1 : 0;
+        for (int i = from; i >= 0 && i <= childCount - 1; i += step) {
+            if (!itemIsObscuredByHeader(snapshot, i, headerId, headerEdge)) {
+                return i - 1;
             }
         }
-        return null;
+        return -1;
+
     }
 
-    private View getLastViewObscuredByHeader(RecyclerView parent, View firstHeader) {
-        boolean isReverseLayout = mOrientationProvider.isReverseLayout(parent);
-        int step = isReverseLayout ? -1 : 1;
-        int from = isReverseLayout ? parent.getChildCount() - 1 : 0;
-        for (int i = from; i >= 0 && i <= parent.getChildCount() - 1; i += step) {
-            View child = parent.getChildAt(i);
-            if (!itemIsObscuredByHeader(parent, child, firstHeader, mOrientationProvider.getOrientation(parent))) {
-                int lastViewObscuredByHeaderPosition = i - 1;
-                if (lastViewObscuredByHeaderPosition >= 0) {
-                    return parent.getChildAt(lastViewObscuredByHeaderPosition);
-                } else {
-                    return null;
-                }
+    private int getLastChildObscuredByFooter(LayoutSnapshot snapshot, View footer, int stickyChild) {
+        mDimensionCalculator.initMargins(mTempRect1, footer);
+        long footerId = getFooterId(snapshot.getPosition(stickyChild));
+        int footerEdge = snapshot.getListBottom() - footer.getHeight() - mTempRect1.bottom - mTempRect1.top;
+        int childCount = snapshot.getChildCount();
+
+        // Obscured children are the trailing children of the sticky section that end past the footer
+        // edge; both conditions hold for a suffix of the children only if the last child is in the
+        // sticky section. Otherwise a child of the section may still end past the edge, and every
+        // child is tested.
+        if (canSearchChildren(snapshot) && snapshot.getOrientation() == LinearLayoutManager.VERTICAL
+                && getFooterId(snapshot.getPosition(childCount - 1)) == footerId) {
+            int firstObscured = Math.max(findFirstChildOfTrailingSection(snapshot, footerId, true),
+                    StickyGeometry.findFirstChildEndingAt(snapshot.getEdges(), footerEdge));
+            return firstObscured < childCount ? firstObscured : -1;
+        }
+
+        boolean isReverseLayout = snapshot.isReverseLayout();
+        int step = isReverseLayout ? -1 : +1;
+        int from = isReverseLayout ? childCount - 1 : 0;
+        for (int i = from; i >= 0 && i <= childCount - 1; i += step) {
+            if (itemIsObscuredByFooter(snapshot, i, footerId, footerEdge)) {
+                return i;
             }
         }
-        return null;
+        return -1;
 
     }
 
-    private View getLastViewObscuredByFooter(RecyclerView parent, View firstFooter) {
-        boolean isReverseLayout = mOrientationProvider.isReverseLayout(parent);
-        int step = isReverseLayout ? -1 : +1;
-        int from = isReverseLayout ? parent.getChildCount() - 1 : 0;
-        for (int i = from; i >= 0 && i <= parent.getChildCount() - 1; i += step) {
-            View child = parent.getChildAt(i);
-            if (itemIsObscuredByFooter(parent, child, firstFooter, mOrientationProvider.getOrientation(parent))) {
-                return child;
+    /**
+     * @return true if the children hold ascending, contiguous positions laid out in order along the
+     * scroll axis, so their sections and edges can be binary searched
+     */
+    private boolean canSearchChildren(LayoutSnapshot snapshot) {
+        return !snapshot.isReverseLayout() && snapshot.hasContiguousPositions()
+                && snapshot.isOrderedAlongScrollAxis() && snapshot.getChildCount() > 0;
+    }
+
+    /**
+     * @return the number of leading children that belong to the section of the given id
+     */
+    private int countLeadingChildrenInSection(LayoutSnapshot snapshot, long id, boolean footer) {
+        SectionStrategy index = footer ? mFooterIndex : mHeaderIndex;
+        int childCount = snapshot.getChildCount();
+        int firstPosition = snapshot.getPosition(0);
+        if (index != null) {
+            int section = index.getSectionForPosition(firstPosition);
+            if (section < 0 || index.getSectionId(section) != id) {
+                return 0;
             }
+            return Math.min(childCount, index.getSectionEnd(section) - firstPosition + 1);
         }
-        return null;
+        return StickyGeometry.countLeadingChildrenInSection(snapshot.getEdges(), footer ? mFooterIds : mHeaderIds, id);
+    }
 
+    /**
+     * @return index of the first of the trailing children that belong to the section of the given id,
+     * or the child count if the last child is in another section
+     */
+    private int findFirstChildOfTrailingSection(LayoutSnapshot snapshot, long id, boolean footer) {
+        SectionStrategy index = footer ? mFooterIndex : mHeaderIndex;
+        int childCount = snapshot.getChildCount();
+        int firstPosition = snapshot.getPosition(0);
+        if (index != null) {
+            int section = index.getSectionForPosition(snapshot.getPosition(childCount - 1));
+            if (section < 0 || index.getSectionId(section) != id) {
+                return childCount;
+            }
+            return Math.max(0, index.getSectionStart(section) - firstPosition);
+        }
+        return StickyGeometry.findFirstChildOfTrailingSection(snapshot.getEdges(), footer ? mFooterIds : mHeaderIds, id);
     }
 
     /**
      * Determines if an item is obscured by a header
      *
-     * @param parent
-     * @param item        to determine if obscured by header
-     * @param header      that might be obscuring the item
-     * @param orientation of the {@link RecyclerView}
+     * @param snapshot   layout of the RecyclerView for the current frame
+     * @param child      index of the item to determine if obscured by header
+     * @param headerId   id of the header that might be obscuring the item
+     * @param headerEdge trailing edge of the header along the scroll axis
      * @return true if the item view is obscured by the header view
      */
-    private boolean itemIsObscuredByHeader(RecyclerView parent, View item, View header, int orientation) {
-        RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) item.getLayoutParams();
-        mDimensionCalculator.initMargins(mTempRect1, header);
-
-        int adapterPosition = parent.getChildAdapterPosition(item);
-        if (adapterPosition == RecyclerView.NO_POSITION || mHeaderProvider.getHeader(parent, adapterPosition) != header) {
+    private boolean itemIsObscuredByHeader(LayoutSnapshot snapshot, int child, long headerId, int headerEdge) {
+        int adapterPosition = snapshot.getPosition(child);
+        if (adapterPosition == RecyclerView.NO_POSITION || getHeaderId(adapterPosition) != headerId) {
             // Resolves https://github.com/timehop/sticky-headers-recyclerview/issues/36
             // Handles an edge case where a trailing header is smaller than the current sticky header.
             return false;
         }
 
-        if (orientation == LinearLayoutManager.VERTICAL) {
-            int itemTop = item.getTop() - layoutParams.topMargin;
-            int headerBottom = getListTop(parent) + header.getBottom() + mTempRect1.bottom + mTempRect1.top;
-            if (itemTop >= headerBottom) {
-                return false;
-            }
+        int itemStart;
+        if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+            itemStart = snapshot.getTop(child) - snapshot.getTopMargin(child);
         } else {
-            int itemLeft = item.getLeft() - layoutParams.leftMargin;
-            int headerRight = getListLeft(parent) + header.getRight() + mTempRect1.right + mTempRect1.left;
-            if (itemLeft >= headerRight) {
-                return false;
-            }
+            itemStart = snapshot.getLeft(child) - snapshot.getLeftMargin(child);
         }
-
-        return true;
+        return itemStart < headerEdge;
     }
 
-    private boolean itemIsObscuredByFooter(RecyclerView parent, View item, View footer, int orientation) {
-        RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) item.getLayoutParams();
-        mDimensionCalculator.initMargins(mTempRect1, footer);
-
-        int adapterPosition = parent.getChildAdapterPosition(item);
-        if (adapterPosition == RecyclerView.NO_POSITION || mFooterProvider.getFooter(parent, adapterPosition) != footer) {
+    private boolean itemIsObscuredByFooter(LayoutSnapshot snapshot, int child, long footerId, int footerEdge) {
+        int adapterPosition = snapshot.getPosition(child);
+        if (adapterPosition == RecyclerView.NO_POSITION || getFooterId(adapterPosition) != footerId) {
             // Resolves https://github.com/timehop/sticky-headers-recyclerview/issues/36
             // Handles an edge case where a trailing header is smaller than the current sticky header.
-            if (parent.getChildAdapterPosition(item) == 583) {
-            }
             return false;
         }
 
-        if (orientation == LinearLayoutManager.VERTICAL) {
-            int itemBottom = item.getBottom() + layoutParams.bottomMargin;
-            int footerTop = getListBottom(parent) - footer.getHeight() - mTempRect1.bottom - mTempRect1.top;
-            if (itemBottom >= footerTop) {
-                return true;
-            }
-        } else {
-//      int itemLeft = item.getLeft() - layoutParams.leftMargin;
-//      int headerRight = getListLeft(parent) + header.getRight() + mTempRect1.right + mTempRect1.left;
-//      if (itemLeft >= headerRight) {
-//        return false;
-//      }
+        if (snapshot.getOrientation() == LinearLayoutManager.VERTICAL) {
+            int itemBottom = snapshot.getBottom(child) + snapshot.getBottomMargin(child);
+            return itemBottom >= footerEdge;
         }
-
         return false;
     }
-
-    private int getListTop(RecyclerView view) {
-        if (view.getLayoutManager().getClipToPadding()) {
-            return view.getPaddingTop();
-        } else {
-            return 0;
-        }
-    }
-
-    private int getListBottom(RecyclerView view) {
-        if (view.getLayoutManager().getClipToPadding()) {
-            return view.getHeight() - view.getPaddingBottom();
-        } else {
-            return view.getHeight();
-        }
-    }
-
-    private int getListLeft(RecyclerView view) {
-        if (view.getLayoutManager().getClipToPadding()) {
-            return view.getPaddingLeft();
-        } else {
-            return 0;
-        }
-    }
 }
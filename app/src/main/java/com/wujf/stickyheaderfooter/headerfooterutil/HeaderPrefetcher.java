@@ -0,0 +1,178 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+import android.support.v4.os.TraceCompat;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+import android.view.Display;
+
+import com.wujf.stickyheaderfooter.headerfooterutil.caching.FooterProvider;
+import com.wujf.stickyheaderfooter.headerfooterutil.caching.HeaderProvider;
+import com.wujf.stickyheaderfooter.headerfooterutil.caching.SectionViewCache;
+import com.wujf.stickyheaderfooter.headerfooterutil.calculation.LayoutSnapshot;
+
+/**
+ * Creates the headers and footers of the sections about to scroll in, in the idle time left after a
+ * frame, so they are already cached when their section arrives instead of being inflated, bound and
+ * measured in the middle of a layout pass.
+ * <p>
+ * Works like RecyclerView's GapWorker: after every frame drawn while scrolling, a task is posted
+ * that looks a few items ahead in the scroll direction and creates the missing views, as long as the
+ * average time to create one still fits before the next frame is due.
+ */
+public class HeaderPrefetcher implements Runnable {
+
+    private static final long DEFAULT_FRAME_INTERVAL_NS = 1000000000L / 60;
+
+    /**
+     * Number of items past the visible ones looked at for upcoming section boundaries.
+     */
+    private static final int PREFETCH_WINDOW = 16;
+
+    private final HeaderPositionCalculator mHeaderPositionCalculator;
+    private final HeaderProvider mHeaderProvider;
+    private final FooterProvider mFooterProvider;
+    private final SectionViewCache mHeaderCache;
+    private final SectionViewCache mFooterCache;
+
+    private RecyclerView mParent;
+    private boolean mScheduled;
+    private long mFrameIntervalNs;
+    private long mFrameStartNs;
+    private boolean mReverseLayout;
+    private int mMinPosition = RecyclerView.NO_POSITION;
+    private int mMaxPosition = RecyclerView.NO_POSITION;
+    /**
+     * +1 when scrolling toward larger positions, -1 toward smaller ones, 0 when not scrolling.
+     */
+    private int mDirection;
+
+    /**
+     * Running averages of the time taken to create a header and a footer, in nanoseconds.
+     */
+    private long mAverageHeaderCreateNs;
+    private long mAverageFooterCreateNs;
+
+    public HeaderPrefetcher(HeaderPositionCalculator headerPositionCalculator, HeaderProvider headerProvider,
+                            FooterProvider footerProvider, SectionViewCache headerCache, SectionViewCache footerCache) {
+        mHeaderPositionCalculator = headerPositionCalculator;
+        mHeaderProvider = headerProvider;
+        mFooterProvider = footerProvider;
+        mHeaderCache = headerCache;
+        mFooterCache = footerCache;
+    }
+
+    /**
+     * Posts a prefetch after the frame just drawn, if the list scrolled since the previous one.
+     *
+     * @param snapshot     layout of the frame just drawn
+     * @param frameStartNs {@link System#nanoTime()} at the start of the frame
+     */
+    public void schedule(LayoutSnapshot snapshot, long frameStartNs) {
+        RecyclerView parent = snapshot.getParent();
+        if (mParent != parent) {
+            mParent = parent;
+            mFrameIntervalNs = 0;
+            mMinPosition = RecyclerView.NO_POSITION;
+            mMaxPosition = RecyclerView.NO_POSITION;
+        }
+        if (mFrameIntervalNs == 0) {
+            mFrameIntervalNs = getFrameIntervalNs(parent);
+        }
+
+        int minPosition = snapshot.getMinPosition();
+        int maxPosition = snapshot.getMaxPosition();
+        if (minPosition == RecyclerView.NO_POSITION || mMinPosition == RecyclerView.NO_POSITION) {
+            mDirection = 0;
+        } else if (maxPosition > mMaxPosition || minPosition > mMinPosition) {
+            mDirection = 1;
+        } else if (minPosition < mMinPosition || maxPosition < mMaxPosition) {
+            mDirection = -1;
+        }
+        mMinPosition = minPosition;
+        mMaxPosition = maxPosition;
+        mReverseLayout = snapshot.isReverseLayout();
+        mFrameStartNs = frameStartNs;
+
+        if (mDirection != 0 && !mScheduled) {
+            mScheduled = true;
+            parent.post(this);
+        }
+    }
+
+    /**
+     * Drops a pending prefetch.
+     */
+    public void cancel() {
+        if (mScheduled && mParent != null) {
+            mParent.removeCallbacks(this);
+        }
+        mScheduled = false;
+    }
+
+    @Override
+    public void run() {
+        mScheduled = false;
+        RecyclerView parent = mParent;
+        if (parent == null || parent.getAdapter() == null || parent.isComputingLayout()
+                || parent.hasPendingAdapterUpdates()) {
+            return;
+        }
+        TraceCompat.beginSection(DecorationMetrics.TRACE_PREFETCH);
+        try {
+            prefetch(parent);
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    private void prefetch(RecyclerView parent) {
+        long deadlineNs = mFrameStartNs + mFrameIntervalNs;
+        int itemCount = parent.getAdapter().getItemCount();
+        int from = mDirection > 0 ? mMaxPosition + 1 : mMinPosition - 1;
+        for (int i = 0; i < PREFETCH_WINDOW; i++) {
+            int position = from + i * mDirection;
+            if (position < 0 || position >= itemCount) {
+                return;
+            }
+            if (mHeaderPositionCalculator.hasNewHeader(position, mReverseLayout)) {
+                long headerId = mHeaderPositionCalculator.getHeaderId(position);
+                if (mHeaderCache.peek(headerId) == null) {
+                    if (System.nanoTime() + mAverageHeaderCreateNs > deadlineNs) {
+                        return;
+                    }
+                    long startNs = System.nanoTime();
+                    mHeaderProvider.getHeader(parent, position, headerId);
+                    mAverageHeaderCreateNs = average(mAverageHeaderCreateNs, System.nanoTime() - startNs);
+                }
+            }
+            if (mHeaderPositionCalculator.hasNewFooter(position, mReverseLayout)) {
+                long footerId = mHeaderPositionCalculator.getFooterId(position);
+                if (mFooterCache.peek(footerId) == null) {
+                    if (System.nanoTime() + mAverageFooterCreateNs > deadlineNs) {
+                        return;
+                    }
+                    long startNs = System.nanoTime();
+                    mFooterProvider.getFooter(parent, position, footerId);
+                    mAverageFooterCreateNs = average(mAverageFooterCreateNs, System.nanoTime() - startNs);
+                }
+            }
+        }
+    }
+
+    private static long average(long average, long sample) {
+        return average == 0 ? sample : (average * 3 + sample) / 4;
+    }
+
+    private static long getFrameIntervalNs(RecyclerView parent) {
+        // View.getDisplay() is API 17
+        Display display = ViewCompat.getDisplay(parent);
+        if (display != null) {
+            // Same sanity check as GapWorker, some devices report bogus refresh rates
+            float refreshRate = display.getRefreshRate();
+            if (refreshRate >= 30f) {
+                return (long) (1000000000L / refreshRate);
+            }
+        }
+        return DEFAULT_FRAME_INTERVAL_NS;
+    }
+}
@@ -0,0 +1,27 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerHeadersAdapter} that already knows its header
+ * groups, like an adapter over grouped query results. The section index then copies the sections as
+ * they are, without reading any header id. It can be implemented without {@link HeaderIdsAdapter},
+ * whose bulk reads are only used when the sections aren't known.
+ */
+public interface HeaderSectionsAdapter {
+
+    /**
+     * Returns the number of header sections, so they can be copied with
+     * {@link #getHeaderSections(int[], long[])} without reading any id.
+     *
+     * @return the number of sections, or -1 to have the ids read instead
+     */
+    int getHeaderSectionCount();
+
+    /**
+     * Copies the sections counted by {@link #getHeaderSectionCount()}, in position order. The first
+     * section starts at position 0, and two consecutive sections never share an id.
+     *
+     * @param starts receives the first position of every section
+     * @param ids    receives the header id of every section
+     */
+    void getHeaderSections(int[] starts, long[] ids);
+}
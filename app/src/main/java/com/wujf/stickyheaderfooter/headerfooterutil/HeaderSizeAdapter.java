@@ -0,0 +1,21 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerHeadersAdapter} that knows the size of its
+ * headers up front. Item offsets are then sized from the hint, and a header is only created, bound
+ * and measured once it is drawn, instead of during the layout that first shows its section.
+ * <p>
+ * A hint that turns out wrong is corrected once, with a new layout of the item offsets after the
+ * header is first drawn. Adapters whose headers all have the same size return a constant.
+ */
+public interface HeaderSizeAdapter {
+
+    /**
+     * Returns the space taken by a header along the scroll axis, margins included: its height in a
+     * vertical list, its width in a horizontal one.
+     *
+     * @param headerId id of the header
+     * @return the size in pixels, or -1 to have the header measured
+     */
+    int getHeaderSizeHint(long headerId);
+}
@@ -0,0 +1,31 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+/**
+ * Optionally implemented by a {@link StickyRecyclerHeadersAdapter} whose headers use several layouts.
+ * Recycled header view holders are pooled by view type, so a holder is only rebound to a header of
+ * the same type.
+ */
+public interface HeaderViewTypeAdapter<VH extends RecyclerView.ViewHolder> {
+
+    /**
+     * Returns the view type of the header associated with this item, the same way getItemViewType
+     * does in RecyclerView.Adapter.
+     *
+     * @param position the position of the view to get the header view type of
+     * @return the header view type
+     */
+    int getHeaderViewType(int position);
+
+    /**
+     * Creates a new ViewHolder for a header of the given view type. Used instead of
+     * {@link StickyRecyclerHeadersAdapter#onCreateHeaderViewHolder(ViewGroup)}.
+     *
+     * @param parent   the view to create a header view holder for
+     * @param viewType the view type of the header
+     * @return the view holder
+     */
+    VH onCreateHeaderViewHolder(ViewGroup parent, int viewType);
+}
@@ -0,0 +1,16 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+/**
+ * Receives what the decoration did in each frame, see
+ * {@link StickyRecyclerDecoration#setMetricsListener(StickyMetricsListener)}.
+ */
+public interface StickyMetricsListener {
+
+    /**
+     * Called at the end of every onDrawOver pass.
+     *
+     * @param metrics work done since the previous frame. Reset once this method returns, copy the
+     *                values to keep them.
+     */
+    void onFrameMetrics(DecorationMetrics metrics);
+}
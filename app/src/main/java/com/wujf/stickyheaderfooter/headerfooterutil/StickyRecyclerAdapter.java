@@ -2,6 +2,8 @@ package com.wujf.stickyheaderfooter.headerfooterutil;
 
 import android.support.v7.widget.RecyclerView;
 
-public interface StickyRecyclerAdapter<HEADERHOLDER extends RecyclerView.ViewHolder, FOOTERHOLDER extends RecyclerView.ViewHolder> extends StickyRecyclerHeadersAdapter<HEADERHOLDER>, StickyRecyclerFootersAdapter<FOOTERHOLDER> {
+import com.wujf.stickyheaderfooter.core.ItemCountProvider;
+
+public interface StickyRecyclerAdapter<HEADERHOLDER extends RecyclerView.ViewHolder, FOOTERHOLDER extends RecyclerView.ViewHolder> extends StickyRecyclerHeadersAdapter<HEADERHOLDER>, StickyRecyclerFootersAdapter<FOOTERHOLDER>, ItemCountProvider {
     int getItemCount();
 }
@@ -2,27 +2,41 @@ package com.wujf.stickyheaderfooter.headerfooterutil;
 
 import android.graphics.Canvas;
 import android.graphics.Rect;
+import android.support.v4.os.TraceCompat;
+import android.support.v4.util.LongSparseArray;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
 import android.util.Log;
-import android.util.SparseArray;
 import android.view.View;
 
+import com.wujf.stickyheaderfooter.core.SectionNavigator;
+import com.wujf.stickyheaderfooter.core.SectionStrategy;
+import com.wujf.stickyheaderfooter.headerfooterutil.caching.CachingProvider;
 import com.wujf.stickyheaderfooter.headerfooterutil.caching.FooterProvider;
 import com.wujf.stickyheaderfooter.headerfooterutil.caching.FooterViewCache;
 import com.wujf.stickyheaderfooter.headerfooterutil.caching.HeaderProvider;
 import com.wujf.stickyheaderfooter.headerfooterutil.caching.HeaderViewCache;
+import com.wujf.stickyheaderfooter.headerfooterutil.caching.HitTargets;
+import com.wujf.stickyheaderfooter.headerfooterutil.caching.SectionViewCache;
+import com.wujf.stickyheaderfooter.headerfooterutil.calculation.DecorationRects;
 import com.wujf.stickyheaderfooter.headerfooterutil.calculation.DimensionCalculator;
+import com.wujf.stickyheaderfooter.headerfooterutil.calculation.LayoutSnapshot;
+import com.wujf.stickyheaderfooter.headerfooterutil.rendering.BitmapPool;
 import com.wujf.stickyheaderfooter.headerfooterutil.rendering.HeaderRenderer;
-import com.wujf.stickyheaderfooter.headerfooterutil.util.LinearLayoutOrientationProvider;
+import com.wujf.stickyheaderfooter.headerfooterutil.rendering.HeaderSnapshotCache;
+import com.wujf.stickyheaderfooter.headerfooterutil.util.StaggeredGridOrientationProvider;
 import com.wujf.stickyheaderfooter.headerfooterutil.util.OrientationProvider;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class StickyRecyclerDecoration extends RecyclerView.ItemDecoration {
 
     private final StickyRecyclerAdapter mAdapter;
     private final ItemVisibilityAdapter mVisibilityAdapter;
-    private final SparseArray<Rect> mHeaderRects = new SparseArray<>();
-    private final SparseArray<Rect> mFooterRects = new SparseArray<>();
+    private final DecorationRects mHeaderRects = new DecorationRects();
+    private final DecorationRects mFooterRects = new DecorationRects();
     private final HeaderProvider mHeaderProvider;
     private final FooterProvider mFooterProvider;
     private final OrientationProvider mOrientationProvider;
@@ -36,18 +50,68 @@ public class StickyRecyclerDecoration extends RecyclerView.ItemDecoration {
      */
     private final Rect mTempRect = new Rect();
 
+    /**
+     * Payloads of the rebind in progress, reused from call to call.
+     */
+    private final List<Object> mPayloads = new ArrayList<>(1);
+
+    /**
+     * Layout of the RecyclerView captured at the start of each getItemOffsets/onDrawOver pass.
+     */
+    private final LayoutSnapshot mLayoutSnapshot = new LayoutSnapshot();
+
+    private boolean mSectionDrawingEnabled;
+
+    /**
+     * Keeps the section indexes in step with the adapter, registered only while one is enabled.
+     */
+    private final SectionDataObserver mDataObserver = new SectionDataObserver();
+    private boolean mObservingAdapter;
+
+    /**
+     * Outcome of checking the size hints against the drawn headers and footers, by id: FALSE when the
+     * hint was right, TRUE when the offsets have to be sized from the view instead. Empty unless the
+     * adapter implements {@link HeaderSizeAdapter} or {@link FooterSizeAdapter}.
+     */
+    private final LongSparseArray<Boolean> mHeaderSizeChecks = new LongSparseArray<>();
+    private final LongSparseArray<Boolean> mFooterSizeChecks = new LongSparseArray<>();
+    private final SizeCorrection mSizeCorrection = new SizeCorrection();
+
+    /**
+     * Navigation over the header sections, created on first use.
+     */
+    private SectionNavigator mSectionNavigator;
+
+    /**
+     * Rasterized headers and footers, null unless snapshot rendering is enabled.
+     */
+    private HeaderSnapshotCache mHeaderSnapshots;
+    private HeaderSnapshotCache mFooterSnapshots;
+    private BitmapPool mBitmapPool;
+
+    /**
+     * Creates upcoming headers and footers between frames, null unless prefetching is enabled.
+     */
+    private HeaderPrefetcher mPrefetcher;
+
+    /**
+     * Per-frame counters, null unless a metrics listener is attached.
+     */
+    private StickyMetricsListener mMetricsListener;
+    private DecorationMetrics mMetrics;
+
     // TODO: Consider passing in orientation to simplify orientation accounting within calculation
     public StickyRecyclerDecoration(StickyRecyclerAdapter adapter) {
-        this(adapter, new LinearLayoutOrientationProvider(), new DimensionCalculator(), null);
+        this(adapter, new StaggeredGridOrientationProvider(), new DimensionCalculator(), null);
     }
 
     public StickyRecyclerDecoration(StickyRecyclerAdapter adapter, ItemVisibilityAdapter visibilityAdapter) {
-        this(adapter, new LinearLayoutOrientationProvider(), new DimensionCalculator(), visibilityAdapter);
+        this(adapter, new StaggeredGridOrientationProvider(), new DimensionCalculator(), visibilityAdapter);
     }
 
     private StickyRecyclerDecoration(StickyRecyclerAdapter adapter, OrientationProvider orientationProvider,
                                      DimensionCalculator dimensionCalculator, ItemVisibilityAdapter visibilityAdapter) {
-        this(adapter, orientationProvider, dimensionCalculator, new HeaderRenderer(orientationProvider),
+        this(adapter, orientationProvider, dimensionCalculator, new HeaderRenderer(),
                 new HeaderViewCache(adapter, orientationProvider), new FooterViewCache(adapter, orientationProvider), visibilityAdapter);
     }
 
@@ -71,20 +135,302 @@ public class StickyRecyclerDecoration extends RecyclerView.ItemDecoration {
         mVisibilityAdapter = visibilityAdapter;
     }
 
+    /**
+     * Enables or disables the section indexes used to resolve header and footer boundaries. With the
+     * indexes enabled, section ids are read from the adapter once per invalidation instead of on
+     * every layout and draw pass, which pays off on large lists with expensive ids.
+     *
+     * @param enabled TRUE to resolve section boundaries through precomputed indexes
+     */
+    public void setSectionIndexEnabled(boolean enabled) {
+        mHeaderPositionCalculator.setSectionIndexEnabled(enabled);
+        updateDataObserver();
+    }
+
+    /**
+     * Replaces the header section index with a strategy suited to the structure of the sections, like
+     * an {@link com.wujf.stickyheaderfooter.core.ArithmeticSectionStrategy} for fixed-size pages, so
+     * section boundaries are resolved without reading ids from the adapter. Section drawing and
+     * navigation work on it as on the index. Disabling the section indexes drops it.
+     * <p>
+     * The ids of the strategy also key the cached header views.
+     *
+     * @param strategy the header sections, or null to go back to reading ids from the adapter
+     */
+    public void setHeaderSectionStrategy(SectionStrategy strategy) {
+        mHeaderPositionCalculator.setHeaderSectionStrategy(strategy);
+        mHeaderProvider.invalidate();
+        mHeaderRects.clear();
+        updateDataObserver();
+    }
+
+    public void setFooterSectionStrategy(SectionStrategy strategy) {
+        mHeaderPositionCalculator.setFooterSectionStrategy(strategy);
+        mFooterProvider.invalidate();
+        mFooterRects.clear();
+        updateDataObserver();
+    }
+
+    /**
+     * Detaches the decoration from its adapter and stops prefetching. Call it when the decoration is
+     * removed from its RecyclerView, so the adapter doesn't keep it alive. Enabling a section index
+     * or setting a section strategy afterwards attaches it again.
+     */
+    public void release() {
+        if (mObservingAdapter) {
+            ((RecyclerView.Adapter) mAdapter).unregisterAdapterDataObserver(mDataObserver);
+            mObservingAdapter = false;
+        }
+        if (mPrefetcher != null) {
+            mPrefetcher.cancel();
+        }
+    }
+
+    /**
+     * Observes the adapter while a header or footer section index is enabled. Without one, nothing is
+     * derived from the adapter that a range update could make stale, and the cached views are left to
+     * {@link #invalidateHeaders()} and {@link #invalidateFooters()}.
+     */
+    private void updateDataObserver() {
+        boolean observe = mAdapter instanceof RecyclerView.Adapter
+                && (mHeaderPositionCalculator.getHeaderIndex() != null || mHeaderPositionCalculator.getFooterIndex() != null);
+        if (observe == mObservingAdapter) {
+            return;
+        }
+        if (observe) {
+            // Updates made while detached were missed
+            mHeaderPositionCalculator.invalidateHeaderIndex();
+            mHeaderPositionCalculator.invalidateFooterIndex();
+            ((RecyclerView.Adapter) mAdapter).registerAdapterDataObserver(mDataObserver);
+        } else {
+            ((RecyclerView.Adapter) mAdapter).unregisterAdapterDataObserver(mDataObserver);
+        }
+        mObservingAdapter = observe;
+    }
+
+    /**
+     * Returns the navigation over the header sections: section count, the section of a position, the
+     * start of a section or of the first section with a given id, next and previous sections. Every
+     * query is a binary search over the header sections, which have to be enabled first with
+     * {@link #setSectionIndexEnabled(boolean)} or {@link #setHeaderSectionStrategy(SectionStrategy)}.
+     *
+     * @return the section navigator
+     * @throws IllegalStateException if neither the section index nor a header strategy is enabled
+     */
+    public SectionNavigator getSectionNavigator() {
+        SectionStrategy headerIndex = mHeaderPositionCalculator.getHeaderIndex();
+        if (headerIndex == null) {
+            throw new IllegalStateException("Section navigation needs the section index or a header section strategy");
+        }
+        if (mSectionNavigator == null || mSectionNavigator.getIndex() != headerIndex) {
+            mSectionNavigator = new SectionNavigator(headerIndex);
+        }
+        return mSectionNavigator;
+    }
+
+    /**
+     * Scrolls to the first section with the given header id, see
+     * {@link #scrollToPositionBelowHeader(RecyclerView, int)}. Needs the
+     * {@link #getSectionNavigator() section navigation}.
+     *
+     * @return false if no section has this id
+     */
+    public boolean scrollToSection(RecyclerView parent, long headerId) {
+        SectionNavigator navigator = getSectionNavigator();
+        int section = navigator.findSection(headerId);
+        if (section < 0) {
+            return false;
+        }
+        scrollToPositionBelowHeader(parent, navigator.getSectionStart(section));
+        return true;
+    }
+
+    /**
+     * Scrolls so that an item is the first one shown, and not hidden under the sticky header. The first
+     * item of a section gets its header above it; any other item is offset by the height of the
+     * header of its section, its size hint or else read from the header cache.
+     *
+     * @param parent   the RecyclerView this decoration is attached to
+     * @param position adapter position of the item
+     */
+    public void scrollToPositionBelowHeader(RecyclerView parent, int position) {
+        mLayoutSnapshot.fillOrientation(parent, mOrientationProvider);
+        int offset = 0;
+        if (!mLayoutSnapshot.isReverseLayout() && mHeaderPositionCalculator.getHeaderId(position) >= 0
+                && !mHeaderPositionCalculator.needsHeaderSpace(mLayoutSnapshot, position)) {
+            // The space of a header is part of the decorated bounds of the items that get one
+            offset = getHeaderSizeHint(mHeaderPositionCalculator.getHeaderId(position));
+            if (offset < 0) {
+                offset = getSize(getHeaderView(parent, position), mLayoutSnapshot.getOrientation());
+            }
+        }
+        RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(position, offset);
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            ((StaggeredGridLayoutManager) layoutManager).scrollToPositionWithOffset(position, offset);
+        } else {
+            parent.scrollToPosition(position);
+        }
+    }
+
+    /**
+     * Enables or disables drawing by section. Instead of testing every child for a header and a
+     * footer, onDrawOver then looks up the sections intersecting the viewport and draws exactly one
+     * header and one footer per visible section boundary, plus the sticky header and footer, so the
+     * cost of a frame follows the number of visible sections rather than visible children.
+     * <p>
+     * Only takes effect while section indexes are enabled, see {@link #setSectionIndexEnabled(boolean)}.
+     *
+     * @param enabled TRUE to draw headers and footers by section
+     */
+    public void setSectionDrawingEnabled(boolean enabled) {
+        mSectionDrawingEnabled = enabled;
+    }
+
+    /**
+     * Enables or disables snapshot rendering. Each header and footer is then rasterized once into a
+     * bitmap and blitted on every frame, instead of drawing its whole view tree; the bitmap is redrawn
+     * when the view is rebound or invalidated through {@link #invalidateHeaderSnapshot(long)} and
+     * {@link #invalidateFooterSnapshot(long)}. Bitmaps are reused across sections through a pool
+     * bounded by {@link #setSnapshotPoolMaxBytes(int)}.
+     * <p>
+     * Best for headers that are costly to draw and rarely change. Views relying on hardware-only
+     * drawing features can't be rasterized this way.
+     *
+     * @param enabled TRUE to draw headers and footers from bitmaps
+     */
+    public void setSnapshotRenderingEnabled(boolean enabled) {
+        SectionViewCache headerCache = getHeaderViewCache();
+        SectionViewCache footerCache = getFooterViewCache();
+        if (enabled && mBitmapPool == null && headerCache != null && footerCache != null) {
+            mBitmapPool = new BitmapPool();
+            mHeaderSnapshots = new HeaderSnapshotCache(mBitmapPool);
+            mFooterSnapshots = new HeaderSnapshotCache(mBitmapPool);
+            headerCache.setListener(mHeaderSnapshots);
+            footerCache.setListener(mFooterSnapshots);
+        } else if (!enabled && mBitmapPool != null) {
+            headerCache.setListener(null);
+            footerCache.setListener(null);
+            mHeaderSnapshots.clear();
+            mFooterSnapshots.clear();
+            mBitmapPool.clear();
+            mHeaderSnapshots = null;
+            mFooterSnapshots = null;
+            mBitmapPool = null;
+        }
+    }
+
+    /**
+     * Enables or disables prefetching. While the list scrolls, the headers and footers of the sections
+     * about to scroll in are then created and measured in the idle time after each frame, the same way
+     * RecyclerView prefetches its items, instead of in the middle of the layout that reveals them.
+     * <p>
+     * Only takes effect with the default header and footer caches.
+     *
+     * @param enabled TRUE to prefetch upcoming headers and footers
+     */
+    public void setPrefetchEnabled(boolean enabled) {
+        SectionViewCache headerCache = getHeaderViewCache();
+        SectionViewCache footerCache = getFooterViewCache();
+        if (enabled && mPrefetcher == null && headerCache != null && footerCache != null) {
+            mPrefetcher = new HeaderPrefetcher(mHeaderPositionCalculator, mHeaderProvider, mFooterProvider,
+                    headerCache, footerCache);
+        } else if (!enabled && mPrefetcher != null) {
+            mPrefetcher.cancel();
+            mPrefetcher = null;
+        }
+    }
+
+    /**
+     * Attaches a listener receiving, after every frame, the time spent in onDrawOver and
+     * getItemOffsets and the header and footer creations, binds, measures, cache lookups and adapter
+     * id reads of the frame. Counting only happens while a listener is attached.
+     * <p>
+     * Creations, binds and measures are only counted with the default header and footer caches.
+     *
+     * @param listener the listener, or null to stop recording
+     */
+    public void setMetricsListener(StickyMetricsListener listener) {
+        mMetricsListener = listener;
+        if (listener == null) {
+            mMetrics = null;
+        } else if (mMetrics == null) {
+            mMetrics = new DecorationMetrics();
+        }
+        mHeaderPositionCalculator.setMetrics(mMetrics);
+        if (mHeaderProvider instanceof CachingProvider) {
+            ((CachingProvider) mHeaderProvider).setMetrics(mMetrics);
+        }
+        if (mFooterProvider instanceof CachingProvider) {
+            ((CachingProvider) mFooterProvider).setMetrics(mMetrics);
+        }
+    }
+
+    /**
+     * Sets the byte budget of the bitmaps kept for reuse by snapshot rendering.
+     *
+     * @param maxBytes maximum number of bytes held by unused bitmaps
+     */
+    public void setSnapshotPoolMaxBytes(int maxBytes) {
+        if (mBitmapPool != null) {
+            mBitmapPool.setMaxBytes(maxBytes);
+        }
+    }
+
+    /**
+     * Redraws the bitmap of a header on the next frame, when its content changed without a rebind.
+     * Has no effect unless snapshot rendering is enabled.
+     *
+     * @param headerId id of the header to redraw
+     */
+    public void invalidateHeaderSnapshot(long headerId) {
+        if (mHeaderSnapshots != null) {
+            mHeaderSnapshots.invalidate(headerId);
+        }
+    }
+
+    public void invalidateFooterSnapshot(long footerId) {
+        if (mFooterSnapshots != null) {
+            mFooterSnapshots.invalidate(footerId);
+        }
+    }
+
     @Override
     public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
         super.getItemOffsets(outRect, view, parent, state);
+        TraceCompat.beginSection(DecorationMetrics.TRACE_ITEM_OFFSETS);
+        final long startNs = mMetrics != null ? System.nanoTime() : 0;
+        try {
+            setItemOffsets(outRect, view, parent);
+        } finally {
+            if (mMetrics != null) {
+                mMetrics.recordItemOffsets(System.nanoTime() - startNs);
+            }
+            TraceCompat.endSection();
+        }
+    }
+
+    private void setItemOffsets(Rect outRect, View view, RecyclerView parent) {
         int itemPosition = parent.getChildAdapterPosition(view);
         if (itemPosition == RecyclerView.NO_POSITION) {
             return;
         }
-        if (mHeaderPositionCalculator.hasNewHeader(itemPosition, mOrientationProvider.isReverseLayout(parent))) {
-            View header = getHeaderView(parent, itemPosition);
-            setItemOffsetsForHeader(outRect, header, mOrientationProvider.getOrientation(parent));
+        mLayoutSnapshot.fillOrientation(parent, mOrientationProvider);
+        final int orientation = mLayoutSnapshot.getOrientation();
+        if (mHeaderPositionCalculator.needsHeaderSpace(mLayoutSnapshot, itemPosition)) {
+            int size = getHeaderSizeHint(mHeaderPositionCalculator.getHeaderId(itemPosition));
+            if (size < 0) {
+                size = getSize(getHeaderView(parent, itemPosition), orientation);
+            }
+            setItemOffsetsForHeader(outRect, size, orientation);
         }
-        if (mHeaderPositionCalculator.hasNewFooter(itemPosition, mOrientationProvider.isReverseLayout(parent))) {
-            View footer = getFooterView(parent, itemPosition);
-            setItemOffsetsForFooter(outRect, footer, mOrientationProvider.getOrientation(parent));
+        if (mHeaderPositionCalculator.needsFooterSpace(mLayoutSnapshot, itemPosition)) {
+            int size = getFooterSizeHint(mHeaderPositionCalculator.getFooterId(itemPosition));
+            if (size < 0) {
+                size = getSize(getFooterView(parent, itemPosition), orientation);
+            }
+            setItemOffsetsForFooter(outRect, size, orientation);
         }
     }
 
@@ -92,69 +438,256 @@ public class StickyRecyclerDecoration extends RecyclerView.ItemDecoration {
      * Sets the offsets for the first item in a section to make room for the header view
      *
      * @param itemOffsets rectangle to define offsets for the item
-     * @param header      view used to calculate offset for the item
+     * @param size        space taken by the header along the scroll axis, margins included
      * @param orientation used to calculate offset for the item
      */
-    private void setItemOffsetsForHeader(Rect itemOffsets, View header, int orientation) {
-        mDimensionCalculator.initMargins(mTempRect, header);
+    private void setItemOffsetsForHeader(Rect itemOffsets, int size, int orientation) {
         if (orientation == LinearLayoutManager.VERTICAL) {
-            itemOffsets.top = itemOffsets.top + header.getHeight() + mTempRect.top + mTempRect.bottom;
+            itemOffsets.top = itemOffsets.top + size;
         } else {
-            itemOffsets.left = itemOffsets.left + header.getWidth() + mTempRect.left + mTempRect.right;
+            itemOffsets.left = itemOffsets.left + size;
         }
     }
 
-    private void setItemOffsetsForFooter(Rect itemOffsets, View header, int orientation) {
-        mDimensionCalculator.initMargins(mTempRect, header);
+    private void setItemOffsetsForFooter(Rect itemOffsets, int size, int orientation) {
         if (orientation == LinearLayoutManager.VERTICAL) {
-            itemOffsets.bottom = header.getHeight() + mTempRect.top + mTempRect.bottom;
+            itemOffsets.bottom = size;
         } else {
-            itemOffsets.left = header.getWidth() + mTempRect.left + mTempRect.right;
+            itemOffsets.left = size;
+        }
+    }
+
+    /**
+     * @return the space taken by a header or footer along the scroll axis, margins included
+     */
+    private int getSize(View header, int orientation) {
+        mDimensionCalculator.initMargins(mTempRect, header);
+        if (orientation == LinearLayoutManager.VERTICAL) {
+            return header.getHeight() + mTempRect.top + mTempRect.bottom;
+        }
+        return header.getWidth() + mTempRect.left + mTempRect.right;
+    }
+
+    /**
+     * @return the size hint of a header, or -1 if the header has to be measured
+     */
+    private int getHeaderSizeHint(long headerId) {
+        if (!(mAdapter instanceof HeaderSizeAdapter) || headerId < 0
+                || mHeaderSizeChecks.get(headerId) == Boolean.TRUE) {
+            return -1;
+        }
+        return ((HeaderSizeAdapter) mAdapter).getHeaderSizeHint(headerId);
+    }
+
+    private int getFooterSizeHint(long footerId) {
+        if (!(mAdapter instanceof FooterSizeAdapter) || footerId < 0
+                || mFooterSizeChecks.get(footerId) == Boolean.TRUE) {
+            return -1;
+        }
+        return ((FooterSizeAdapter) mAdapter).getFooterSizeHint(footerId);
+    }
+
+    /**
+     * Compares the hint a header or footer was laid out with to the size it was drawn with, the first
+     * time it is drawn, and schedules a new layout of the item offsets if they differ.
+     */
+    private void checkSizeHint(LongSparseArray<Boolean> checks, int hint, long id, View header, int orientation) {
+        if (hint < 0 || checks.get(id) != null) {
+            return;
+        }
+        boolean wrong = getSize(header, orientation) != hint;
+        checks.put(id, wrong);
+        if (wrong) {
+            mSizeCorrection.schedule(mLayoutSnapshot.getParent());
         }
     }
 
     @Override
     public void onDrawOver(Canvas canvas, RecyclerView parent, RecyclerView.State state) {
         super.onDrawOver(canvas, parent, state);
+        final long frameStartNs = System.nanoTime();
+        TraceCompat.beginSection(DecorationMetrics.TRACE_DRAW_OVER);
+        try {
+            drawOver(canvas, parent, frameStartNs);
+        } finally {
+            TraceCompat.endSection();
+        }
+        if (mMetrics != null) {
+            mMetrics.recordDrawOver(System.nanoTime() - frameStartNs);
+            mMetricsListener.onFrameMetrics(mMetrics);
+            // The listener may have detached itself
+            if (mMetrics != null) {
+                mMetrics.reset();
+            }
+        }
+    }
 
-        final int childCount = parent.getChildCount();
-        if (childCount <= 0 || mAdapter.getItemCount() <= 0) {
-            return;
+    private void drawOver(Canvas canvas, RecyclerView parent, long frameStartNs) {
+        final LayoutSnapshot snapshot = mLayoutSnapshot;
+        snapshot.fill(parent, mOrientationProvider);
+        final int childCount = snapshot.getChildCount();
+        mHeaderRects.beginFrame();
+        mFooterRects.beginFrame();
+        if (childCount > 0 && mAdapter.getItemCount() > 0) {
+            mRenderer.beginFrame(snapshot, canvas);
+            try {
+                if (mSectionDrawingEnabled && mHeaderPositionCalculator.getHeaderIndex() != null) {
+                    drawSections(canvas, snapshot);
+                } else {
+                    drawChildren(canvas, snapshot, true, true);
+                }
+            } finally {
+                mRenderer.endFrame(canvas);
+            }
+        }
+        mHeaderRects.endFrame(snapshot.getOrientation());
+        mFooterRects.endFrame(snapshot.getOrientation());
+        // Everything used since the last frame has been drawn, the caches may evict it from now on
+        SectionViewCache headerCache = getHeaderViewCache();
+        if (headerCache != null) {
+            headerCache.endFrame();
         }
+        SectionViewCache footerCache = getFooterViewCache();
+        if (footerCache != null) {
+            footerCache.endFrame();
+        }
+        if (mPrefetcher != null) {
+            mPrefetcher.schedule(snapshot, frameStartNs);
+        }
+    }
 
+    /**
+     * Draws headers and footers by testing every child for a section boundary.
+     *
+     * @param headers TRUE to draw the headers
+     * @param footers TRUE to draw the footers
+     */
+    private void drawChildren(Canvas canvas, LayoutSnapshot snapshot, boolean headers, boolean footers) {
+        final boolean isReverseLayout = snapshot.isReverseLayout();
+        final int childCount = snapshot.getChildCount();
+        // Every child of the first (or last) row of a grid is at the edge of the list, so the sticky
+        // children of a grid are resolved once per frame. Those of a staggered grid, whose children
+        // aren't ordered by position, come from the first and last visible item of each span.
+        final boolean multiSpan = snapshot.getSpanCount() > 1;
+        final int stickyHeaderChild = multiSpan && headers ? mHeaderPositionCalculator.findStickyHeaderChild(snapshot) : -1;
+        final int stickyFooterChild = multiSpan && footers ? mHeaderPositionCalculator.findStickyFooterChild(snapshot) : -1;
         for (int i = 0; i < childCount; i++) {
-            View itemView = parent.getChildAt(i);
-            int position = parent.getChildAdapterPosition(itemView);
+            int position = snapshot.getPosition(i);
             if (position == RecyclerView.NO_POSITION) {
                 continue;
             }
 
-            boolean hasStickyHeader = mHeaderPositionCalculator.hasStickyHeader(itemView, mOrientationProvider.getOrientation(parent), position);
-            if (hasStickyHeader || mHeaderPositionCalculator.hasNewHeader(position, mOrientationProvider.isReverseLayout(parent))) {
-                View header = mHeaderProvider.getHeader(parent, position);
-                //re-use existing Rect, if any.
-                Rect headerOffset = mHeaderRects.get(position);
-                if (headerOffset == null) {
-                    headerOffset = new Rect();
-                    mHeaderRects.put(position, headerOffset);
+            if (headers) {
+                boolean hasStickyHeader = multiSpan ? i == stickyHeaderChild : mHeaderPositionCalculator.hasStickyHeader(snapshot, i);
+                if (hasStickyHeader || mHeaderPositionCalculator.hasNewHeader(position, isReverseLayout)) {
+                    drawHeader(canvas, snapshot, i, hasStickyHeader);
                 }
-                mHeaderPositionCalculator.initHeaderBounds(headerOffset, parent, header, itemView, hasStickyHeader);
-                mRenderer.drawHeader(parent, canvas, header, headerOffset);
-            }
-            boolean hasStickyFooter = mHeaderPositionCalculator.hasStickyFooter(parent, itemView, mOrientationProvider.getOrientation(parent), position);
-            if (hasStickyFooter || mHeaderPositionCalculator.hasNewFooter(position, mOrientationProvider.isReverseLayout(parent))) {
-                View footer = mFooterProvider.getFooter(parent, position);
-                Rect footerOffset = mFooterRects.get(position);
-                if (footerOffset == null) {
-                    footerOffset = new Rect();
-                    mFooterRects.put(position, footerOffset);
+            }
+            if (footers) {
+                boolean hasStickyFooter = multiSpan ? i == stickyFooterChild : mHeaderPositionCalculator.hasStickyFooter(snapshot, i);
+                if (hasStickyFooter || mHeaderPositionCalculator.hasNewFooter(position, isReverseLayout)) {
+                    drawFooter(canvas, snapshot, i, hasStickyFooter);
                 }
-                mHeaderPositionCalculator.initFooterBounds(footerOffset, parent, footer, itemView, hasStickyFooter);
-                mRenderer.drawHeader(parent, canvas, footer, footerOffset);
             }
         }
     }
 
+    /**
+     * Draws headers and footers by walking the sections intersecting the viewport. Each visible
+     * section boundary is drawn once, then the sticky header and footer if they weren't among them.
+     * Footers are drawn child by child when only the headers have sections, like a header strategy
+     * set with the section index disabled.
+     */
+    private void drawSections(Canvas canvas, LayoutSnapshot snapshot) {
+        final int minPosition = snapshot.getMinPosition();
+        final int maxPosition = snapshot.getMaxPosition();
+        if (minPosition == RecyclerView.NO_POSITION) {
+            return;
+        }
+        final boolean isReverseLayout = snapshot.isReverseLayout();
+
+        int stickyHeaderChild = mHeaderPositionCalculator.findStickyHeaderChild(snapshot);
+        boolean stickyHeaderDrawn = false;
+        SectionStrategy headerIndex = mHeaderPositionCalculator.getHeaderIndex();
+        int lastSection = headerIndex.getSectionForPosition(maxPosition);
+        for (int section = headerIndex.getSectionForPosition(minPosition); section <= lastSection; section++) {
+            if (headerIndex.getSectionId(section) < 0) {
+                continue;
+            }
+            int position = isReverseLayout ? headerIndex.getSectionEnd(section) : headerIndex.getSectionStart(section);
+            if (!headerIndex.isBoundary(position, isReverseLayout)) {
+                // Next to placeholders, where the section really starts isn't known yet
+                continue;
+            }
+            int child = position < minPosition ? -1 : snapshot.indexOfPosition(position);
+            if (child >= 0) {
+                drawHeader(canvas, snapshot, child, child == stickyHeaderChild);
+                stickyHeaderDrawn |= child == stickyHeaderChild;
+            }
+        }
+        if (stickyHeaderChild >= 0 && !stickyHeaderDrawn) {
+            drawHeader(canvas, snapshot, stickyHeaderChild, true);
+        }
+
+        SectionStrategy footerIndex = mHeaderPositionCalculator.getFooterIndex();
+        if (footerIndex == null) {
+            drawChildren(canvas, snapshot, false, true);
+            return;
+        }
+        int stickyFooterChild = mHeaderPositionCalculator.findStickyFooterChild(snapshot);
+        boolean stickyFooterDrawn = false;
+        lastSection = footerIndex.getSectionForPosition(maxPosition);
+        for (int section = footerIndex.getSectionForPosition(minPosition); section <= lastSection; section++) {
+            if (footerIndex.getSectionId(section) < 0) {
+                continue;
+            }
+            int position = isReverseLayout ? footerIndex.getSectionStart(section) : footerIndex.getSectionEnd(section);
+            if (!footerIndex.isBoundary(position, !isReverseLayout)) {
+                continue;
+            }
+            int child = position > maxPosition ? -1 : snapshot.indexOfPosition(position);
+            if (child >= 0) {
+                drawFooter(canvas, snapshot, child, child == stickyFooterChild);
+                stickyFooterDrawn |= child == stickyFooterChild;
+            }
+        }
+        if (stickyFooterChild >= 0 && !stickyFooterDrawn) {
+            drawFooter(canvas, snapshot, stickyFooterChild, true);
+        }
+    }
+
+    private void drawHeader(Canvas canvas, LayoutSnapshot snapshot, int child, boolean sticky) {
+        int position = snapshot.getPosition(child);
+        long headerId = mHeaderPositionCalculator.getHeaderId(position);
+        View header = mHeaderProvider.getHeader(snapshot.getParent(), position, headerId);
+        if (mAdapter instanceof HeaderSizeAdapter) {
+            checkSizeHint(mHeaderSizeChecks, getHeaderSizeHint(headerId), headerId, header, snapshot.getOrientation());
+        }
+        Rect headerOffset = mHeaderRects.obtain(position);
+        mHeaderPositionCalculator.initHeaderBounds(headerOffset, snapshot, header, child, sticky);
+        if (mHeaderSnapshots != null) {
+            mRenderer.drawFrameHeader(canvas, header, headerOffset, mHeaderSnapshots, headerId);
+        } else {
+            mRenderer.drawFrameHeader(canvas, header, headerOffset, null, 0);
+        }
+    }
+
+    private void drawFooter(Canvas canvas, LayoutSnapshot snapshot, int child, boolean sticky) {
+        int position = snapshot.getPosition(child);
+        long footerId = mHeaderPositionCalculator.getFooterId(position);
+        View footer = mFooterProvider.getFooter(snapshot.getParent(), position, footerId);
+        if (mAdapter instanceof FooterSizeAdapter) {
+            checkSizeHint(mFooterSizeChecks, getFooterSizeHint(footerId), footerId, footer, snapshot.getOrientation());
+        }
+        Rect footerOffset = mFooterRects.obtain(position);
+        mHeaderPositionCalculator.initFooterBounds(footerOffset, snapshot, footer, child, sticky);
+        if (mFooterSnapshots != null) {
+            mRenderer.drawFrameHeader(canvas, footer, footerOffset, mFooterSnapshots, footerId);
+        } else {
+            mRenderer.drawFrameHeader(canvas, footer, footerOffset, null, 0);
+        }
+    }
+
     /**
      * Gets the position of the header under the specified (x, y) coordinates.
      *
@@ -163,21 +696,7 @@ public class StickyRecyclerDecoration extends RecyclerView.ItemDecoration {
      * @return position of header, or -1 if not found
      */
     public int findHeaderPositionUnder(int x, int y) {
-        int tempPosition = -1; // Added
-        for (int i = 0; i < mHeaderRects.size(); i++) {
-            Rect rect = mHeaderRects.get(mHeaderRects.keyAt(i));
-            if (rect.contains(x, y)) {
-                int position = mHeaderRects.keyAt(i);
-                if (mVisibilityAdapter == null || mVisibilityAdapter.isPositionVisible(position)) {
-                    tempPosition = position; // Added
-                } else {
-                    if (tempPosition != -1) {
-                        break;//my Added
-                    }
-                }
-            }
-        }
-        return tempPosition; // Added
+        return mHeaderRects.findPositionAt(x, y, mVisibilityAdapter);
     }
 
     /**
@@ -185,24 +704,52 @@ public class StickyRecyclerDecoration extends RecyclerView.ItemDecoration {
      *
      * @param x x-coordinate
      * @param y y-coordinate
-     * @return position of header, or -1 if not found
+     * @return position of footer, or -1 if not found
      */
     public int findFooterPositionUnder(int x, int y) {
-        int tempPosition = -1; // Added
-        for (int i = 0; i < mFooterRects.size(); i++) {
-            Rect rect = mFooterRects.get(mFooterRects.keyAt(i));
-            if (rect.contains(x, y)) {
-                int position = mFooterRects.keyAt(i);
-                if (mVisibilityAdapter == null || mVisibilityAdapter.isPositionVisible(position)) {
-                    tempPosition = position; // Added
-                } else {
-                    if (tempPosition != -1) {
-                        break;//my Added
-                    }
-                }
-            }
-        }
-        return tempPosition; // Added
+        return mFooterRects.findPositionAt(x, y, mVisibilityAdapter);
+    }
+
+    /**
+     * Tells whether a point is on one of the headers and footers drawn in the last frame. A cheap
+     * test, a binary search over their rects, to reject touches that can't be on any of them.
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return false if no header or footer is under the point
+     */
+    public boolean isOverDecoration(int x, int y) {
+        return mHeaderRects.contains(x, y) || mFooterRects.contains(x, y);
+    }
+
+    /**
+     * Copies the bounds the header of a position was drawn at in the last frame.
+     *
+     * @param position  adapter position the header was drawn for
+     * @param outBounds rect receiving the bounds, relative to the RecyclerView
+     * @return false if no header was drawn for the position
+     */
+    public boolean getHeaderBounds(int position, Rect outBounds) {
+        return mHeaderRects.getBounds(position, outBounds);
+    }
+
+    public boolean getFooterBounds(int position, Rect outBounds) {
+        return mFooterRects.getBounds(position, outBounds);
+    }
+
+    /**
+     * Returns the clickable views of the header of a position, collected when it was last laid out.
+     *
+     * @return the hit targets, or null if the header isn't cached
+     */
+    public HitTargets getHeaderHitTargets(int position) {
+        SectionViewCache headerCache = getHeaderViewCache();
+        return headerCache != null ? headerCache.getHitTargets(mHeaderPositionCalculator.getHeaderId(position)) : null;
+    }
+
+    public HitTargets getFooterHitTargets(int position) {
+        SectionViewCache footerCache = getFooterViewCache();
+        return footerCache != null ? footerCache.getHitTargets(mHeaderPositionCalculator.getFooterId(position)) : null;
     }
 
     /**
@@ -214,19 +761,19 @@ public class StickyRecyclerDecoration extends RecyclerView.ItemDecoration {
      * @return Header view
      */
     public View getHeaderView(RecyclerView parent, int position) {
-        return mHeaderProvider.getHeader(parent, position);
+        return mHeaderProvider.getHeader(parent, position, mHeaderPositionCalculator.getHeaderId(position));
     }
 
     public View getFooterView(RecyclerView parent, int position) {
-        return mFooterProvider.getFooter(parent, position);
+        return mFooterProvider.getFooter(parent, position, mHeaderPositionCalculator.getFooterId(position));
     }
 
     public RecyclerView.ViewHolder getHeaderViewHolder(int position) {
-        return mHeaderProvider.getHeaderViewHolder(position);
+        return mHeaderProvider.getHeaderViewHolder(mHeaderPositionCalculator.getHeaderId(position));
     }
 
     public RecyclerView.ViewHolder getFooterViewHolder(int position) {
-        return mFooterProvider.getFooterViewHolder(position);
+        return mFooterProvider.getFooterViewHolder(mHeaderPositionCalculator.getFooterId(position));
     }
 
     /**
@@ -236,10 +783,339 @@ public class StickyRecyclerDecoration extends RecyclerView.ItemDecoration {
     public void invalidateHeaders() {
         mHeaderProvider.invalidate();
         mHeaderRects.clear();
+        mHeaderSizeChecks.clear();
+        mHeaderPositionCalculator.invalidateHeaderIndex();
     }
 
     public void invalidateFooters() {
         mFooterProvider.invalidate();
         mFooterRects.clear();
+        mFooterSizeChecks.clear();
+        mHeaderPositionCalculator.invalidateFooterIndex();
+    }
+
+    /**
+     * Rebinds the cached header and footer of the section of a position in place, for a change of
+     * their content that keeps the section, like a badge count. Nothing is inflated: the views are
+     * measured again only if binding requested a layout, the item offsets are recomputed only if a
+     * size changed, and otherwise only the header and footer bands are redrawn.
+     *
+     * @param parent   the RecyclerView this decoration is attached to
+     * @param position adapter position of an item of the section
+     */
+    public void invalidateSection(RecyclerView parent, int position) {
+        invalidateSection(parent, position, null);
+    }
+
+    /**
+     * Pushes a payload to the cached header and footer of the section of a position, see
+     * {@link #invalidateSection(RecyclerView, int)}. Adapters implementing
+     * {@link HeaderPayloadAdapter} or {@link FooterPayloadAdapter} get a partial bind with the
+     * payload, others a full bind.
+     *
+     * @param payload the change to apply, or null for a full bind
+     */
+    public void invalidateSection(RecyclerView parent, int position, Object payload) {
+        List<Object> payloads = payloads(payload);
+        int headerResult = rebind(mHeaderProvider, parent, position, mHeaderPositionCalculator.getHeaderId(position),
+                false, payloads);
+        int footerResult = rebind(mFooterProvider, parent, position, mHeaderPositionCalculator.getFooterId(position),
+                true, payloads);
+        payloads.clear();
+        onRebound(parent, Math.max(headerResult, footerResult));
+    }
+
+    /**
+     * Rebinds the cached header of the first section with the given id, see
+     * {@link #invalidateSection(RecyclerView, int)}. With the section index or a header strategy
+     * enabled, the section is found through the {@link #getSectionNavigator() section navigator}.
+     * Otherwise only the headers drawn in the last frame are searched, and a header cached off screen
+     * is dropped, to be bound again when its section scrolls in; no index is built for the lookup.
+     *
+     * @return false if no section has this id, or without an index if no header of this id is drawn
+     * or cached
+     */
+    public boolean invalidateHeader(RecyclerView parent, long headerId) {
+        return invalidateHeader(parent, headerId, null);
+    }
+
+    /**
+     * Pushes a payload to the cached header of the first section with the given id, see
+     * {@link #invalidateSection(RecyclerView, int, Object)}.
+     *
+     * @param payload the change to apply, or null for a full bind
+     * @return false if no section has this id
+     */
+    public boolean invalidateHeader(RecyclerView parent, long headerId, Object payload) {
+        int position;
+        if (mHeaderPositionCalculator.getHeaderIndex() != null) {
+            SectionNavigator navigator = getSectionNavigator();
+            position = navigator.getSectionStart(navigator.findSection(headerId));
+        } else {
+            position = findDrawnHeaderPosition(headerId);
+            if (position < 0) {
+                if (headerId < 0 || mHeaderProvider.getHeaderViewHolder(headerId) == null) {
+                    return false;
+                }
+                // Binding needs a position, which isn't known without an index
+                mHeaderProvider.invalidate(headerId);
+                mHeaderSizeChecks.remove(headerId);
+                return true;
+            }
+        }
+        if (position < 0) {
+            return false;
+        }
+        List<Object> payloads = payloads(payload);
+        int result = rebind(mHeaderProvider, parent, position, headerId, false, payloads);
+        payloads.clear();
+        onRebound(parent, result);
+        return true;
+    }
+
+    /**
+     * @return a position a header with the given id was drawn for in the last frame, or -1
+     */
+    private int findDrawnHeaderPosition(long headerId) {
+        for (int i = 0; i < mHeaderRects.getCount(); i++) {
+            int position = mHeaderRects.getPosition(i);
+            if (position >= 0 && position < mAdapter.getItemCount()
+                    && mHeaderPositionCalculator.getHeaderId(position) == headerId) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private List<Object> payloads(Object payload) {
+        mPayloads.clear();
+        if (payload != null) {
+            mPayloads.add(payload);
+        }
+        return mPayloads;
+    }
+
+    private int rebind(Object provider, RecyclerView parent, int position, long id, boolean footer,
+                       List<Object> payloads) {
+        if (id < 0) {
+            return CachingProvider.REBIND_NOT_CACHED;
+        }
+        // The new content may not match the size hint any more, check it again when drawn
+        if (footer) {
+            mFooterSizeChecks.remove(id);
+        } else {
+            mHeaderSizeChecks.remove(id);
+        }
+        if (provider instanceof CachingProvider) {
+            return ((CachingProvider) provider).rebind(parent, position, id, payloads);
+        }
+        // Providers without a cache can only drop the view, its size is unknown until it is recreated
+        if (footer) {
+            mFooterProvider.invalidate(id);
+        } else {
+            mHeaderProvider.invalidate(id);
+        }
+        return CachingProvider.REBIND_RESIZED;
+    }
+
+    private void onRebound(RecyclerView parent, int result) {
+        if (result == CachingProvider.REBIND_RESIZED) {
+            // Item offsets are sized after the headers and footers
+            parent.invalidateItemDecorations();
+        } else if (result == CachingProvider.REBIND_UNCHANGED) {
+            // Same size, same place: only what the bands cover needs drawing again
+            if (mHeaderRects.getBand(mTempRect)) {
+                parent.invalidate(mTempRect.left, mTempRect.top, mTempRect.right, mTempRect.bottom);
+            }
+            if (mFooterRects.getBand(mTempRect)) {
+                parent.invalidate(mTempRect.left, mTempRect.top, mTempRect.right, mTempRect.bottom);
+            }
+        }
+    }
+
+    /**
+     * Returns the cache of header views, which exposes hit/miss/eviction counters to size it from.
+     *
+     * @return the header view cache, or null if the header provider doesn't cache its views
+     */
+    public SectionViewCache getHeaderViewCache() {
+        return mHeaderProvider instanceof CachingProvider ? ((CachingProvider) mHeaderProvider).getViewCache() : null;
+    }
+
+    public SectionViewCache getFooterViewCache() {
+        return mFooterProvider instanceof CachingProvider ? ((CachingProvider) mFooterProvider).getViewCache() : null;
+    }
+
+    /**
+     * Sets how many sections the header and footer caches keep. Least recently used sections are
+     * evicted beyond it; the sticky and visible ones are always kept.
+     *
+     * @param capacity maximum number of cached header views, and of cached footer views
+     */
+    public void setViewCacheCapacity(int capacity) {
+        SectionViewCache headerCache = getHeaderViewCache();
+        if (headerCache != null) {
+            headerCache.setCapacity(capacity);
+        }
+        SectionViewCache footerCache = getFooterViewCache();
+        if (footerCache != null) {
+            footerCache.setCapacity(capacity);
+        }
+    }
+
+    /**
+     * Trims the header and footer caches. Meant to be forwarded from
+     * {@link android.content.ComponentCallbacks2#onTrimMemory(int)} of the hosting Activity or
+     * Application.
+     *
+     * @param level the memory trim level
+     */
+    public void onTrimMemory(int level) {
+        SectionViewCache headerCache = getHeaderViewCache();
+        if (headerCache != null) {
+            headerCache.onTrimMemory(level);
+        }
+        SectionViewCache footerCache = getFooterViewCache();
+        if (footerCache != null) {
+            footerCache.onTrimMemory(level);
+        }
+        if (mBitmapPool != null) {
+            mHeaderSnapshots.onTrimMemory(level);
+            mFooterSnapshots.onTrimMemory(level);
+        }
+    }
+
+    /**
+     * Lays the item offsets out again after a frame drew a header or footer of another size than its
+     * hint. Posted, as the offsets can't be invalidated while the RecyclerView draws.
+     */
+    private static class SizeCorrection implements Runnable {
+
+        private RecyclerView mParent;
+
+        void schedule(RecyclerView parent) {
+            if (mParent == null) {
+                mParent = parent;
+                parent.post(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            RecyclerView parent = mParent;
+            mParent = null;
+            parent.invalidateItemDecorations();
+        }
+    }
+
+    /**
+     * Keeps the section indexes, the cached views and the header/footer rects in step with the
+     * adapter while section indexes are enabled. Range updates are applied incrementally, evicting
+     * only the views of the sections they touched; an index that can't follow an update falls back to
+     * a full invalidation. Range updates of a side without an index are left alone.
+     */
+    private class SectionDataObserver extends RecyclerView.AdapterDataObserver {
+
+        @Override
+        public void onChanged() {
+            invalidateHeaders();
+            invalidateFooters();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            SectionStrategy headerIndex = mHeaderPositionCalculator.getHeaderIndex();
+            if (headerIndex != null) {
+                if (headerIndex.onItemRangeChanged(positionStart, itemCount)) {
+                    evictHeaders(headerIndex);
+                } else {
+                    invalidateHeaders();
+                }
+            }
+            SectionStrategy footerIndex = mHeaderPositionCalculator.getFooterIndex();
+            if (footerIndex != null) {
+                if (footerIndex.onItemRangeChanged(positionStart, itemCount)) {
+                    evictFooters(footerIndex);
+                } else {
+                    invalidateFooters();
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            SectionStrategy headerIndex = mHeaderPositionCalculator.getHeaderIndex();
+            if (headerIndex != null) {
+                if (headerIndex.onItemRangeInserted(positionStart, itemCount)) {
+                    evictHeaders(headerIndex);
+                    mHeaderRects.onItemRangeInserted(positionStart, itemCount);
+                } else {
+                    invalidateHeaders();
+                }
+            }
+            SectionStrategy footerIndex = mHeaderPositionCalculator.getFooterIndex();
+            if (footerIndex != null) {
+                if (footerIndex.onItemRangeInserted(positionStart, itemCount)) {
+                    evictFooters(footerIndex);
+                    mFooterRects.onItemRangeInserted(positionStart, itemCount);
+                } else {
+                    invalidateFooters();
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            SectionStrategy headerIndex = mHeaderPositionCalculator.getHeaderIndex();
+            if (headerIndex != null) {
+                if (headerIndex.onItemRangeRemoved(positionStart, itemCount)) {
+                    evictHeaders(headerIndex);
+                    mHeaderRects.onItemRangeRemoved(positionStart, itemCount);
+                } else {
+                    invalidateHeaders();
+                }
+            }
+            SectionStrategy footerIndex = mHeaderPositionCalculator.getFooterIndex();
+            if (footerIndex != null) {
+                if (footerIndex.onItemRangeRemoved(positionStart, itemCount)) {
+                    evictFooters(footerIndex);
+                    mFooterRects.onItemRangeRemoved(positionStart, itemCount);
+                } else {
+                    invalidateFooters();
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            SectionStrategy headerIndex = mHeaderPositionCalculator.getHeaderIndex();
+            if (headerIndex != null) {
+                if (headerIndex.onItemRangeMoved(fromPosition, toPosition, itemCount)) {
+                    evictHeaders(headerIndex);
+                } else {
+                    invalidateHeaders();
+                }
+            }
+            SectionStrategy footerIndex = mHeaderPositionCalculator.getFooterIndex();
+            if (footerIndex != null) {
+                if (footerIndex.onItemRangeMoved(fromPosition, toPosition, itemCount)) {
+                    evictFooters(footerIndex);
+                } else {
+                    invalidateFooters();
+                }
+            }
+        }
+
+        private void evictHeaders(SectionStrategy headerIndex) {
+            for (int i = 0; i < headerIndex.getChangedIdCount(); i++) {
+                mHeaderProvider.invalidate(headerIndex.getChangedId(i));
+            }
+        }
+
+        private void evictFooters(SectionStrategy footerIndex) {
+            for (int i = 0; i < footerIndex.getChangedIdCount(); i++) {
+                mFooterProvider.invalidate(footerIndex.getChangedId(i));
+            }
+        }
     }
 }
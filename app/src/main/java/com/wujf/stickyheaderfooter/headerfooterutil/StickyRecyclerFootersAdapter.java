@@ -7,7 +7,8 @@ public interface StickyRecyclerFootersAdapter<VH extends RecyclerView.ViewHolder
     /**
      * Get the ID of the header associated with this item.  For example, if your headers group
      * items by their first letter, you could return the character representation of the first letter.
-     * Return a value &lt; 0 if the view should not have a header (like, a header view or footer view)
+     * Return a value &lt; 0 if the view should not have a header (like, a header view or footer view),
+     * or {@link StickyRecyclerHeadersAdapter#UNKNOWN_ID} if its section isn't known yet.
      *
      * @param position the position of the view to get the header ID of
      * @return the header ID
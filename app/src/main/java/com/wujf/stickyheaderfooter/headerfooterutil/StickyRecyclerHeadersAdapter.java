@@ -3,11 +3,24 @@ package com.wujf.stickyheaderfooter.headerfooterutil;
 import android.support.v7.widget.RecyclerView;
 import android.view.ViewGroup;
 
+import com.wujf.stickyheaderfooter.core.SectionIds;
+
 public interface StickyRecyclerHeadersAdapter<VH extends RecyclerView.ViewHolder> {
+
+    /**
+     * Header (or footer) id of an item whose section isn't known yet, like a placeholder of a paged
+     * list that isn't loaded. No header is drawn for it, and the item next to it isn't taken for the
+     * start of a section, since its section may go on into the placeholders. With the section index
+     * enabled, notifying the change of a loaded page patches the sections in incrementally, reading
+     * only the ids of the page and evicting only the headers of the sections it touched.
+     */
+    long UNKNOWN_ID = SectionIds.UNKNOWN_ID;
+
     /**
      * Get the ID of the header associated with this item.  For example, if your headers group
      * items by their first letter, you could return the character representation of the first letter.
-     * Return a value &lt; 0 if the view should not have a header (like, a header view or footer view)
+     * Return a value &lt; 0 if the view should not have a header (like, a header view or footer view),
+     * or {@link #UNKNOWN_ID} if its section isn't known yet.
      *
      * @param position the position of the view to get the header ID of
      * @return the header ID
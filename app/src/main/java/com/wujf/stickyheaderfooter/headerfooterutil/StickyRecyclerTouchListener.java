@@ -6,9 +6,8 @@ import android.util.Log;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewGroup;
 
-import java.nio.file.attribute.PosixFileAttributes;
+import com.wujf.stickyheaderfooter.headerfooterutil.caching.HitTargets;
 
 public class StickyRecyclerTouchListener implements RecyclerView.OnItemTouchListener {
     private final GestureDetector mTapDetector;
@@ -16,6 +15,19 @@ public class StickyRecyclerTouchListener implements RecyclerView.OnItemTouchList
     private final StickyRecyclerDecoration mDecor;
     private OnHeaderClickListener mOnHeaderClickListener;
 
+    /**
+     * Buffers reused by every tap: bounds of the tapped header, and hit targets for headers the
+     * decoration has none cached for.
+     */
+    private final Rect mTempRect = new Rect();
+    private final HitTargets mTempTargets = new HitTargets();
+
+    /**
+     * Whether the current gesture started over a header or footer. Other gestures are ignored
+     * without going through the gesture detector.
+     */
+    private boolean mOverDecoration;
+
     public interface OnHeaderClickListener {
         void onHeaderClick(View header, int position, long headerId);
     }
@@ -44,6 +56,12 @@ public class StickyRecyclerTouchListener implements RecyclerView.OnItemTouchList
 
     @Override
     public boolean onInterceptTouchEvent(RecyclerView view, MotionEvent e) {
+        if (e.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mOverDecoration = mDecor.isOverDecoration((int) e.getX(), (int) e.getY());
+        }
+        if (!mOverDecoration) {
+            return false;
+        }
         boolean tapDetectorResponse = this.mTapDetector.onTouchEvent(e);
         if (tapDetectorResponse) {
             // Don't return false if a single tap is detected
@@ -68,45 +86,41 @@ public class StickyRecyclerTouchListener implements RecyclerView.OnItemTouchList
         @Override
         public boolean onSingleTapUp(MotionEvent e) {
             int position = mDecor.findHeaderPositionUnder((int) e.getX(), (int) e.getY());
-            if (position != -1) {
+            if (position != -1 && mDecor.getHeaderBounds(position, mTempRect)) {
                 View headerView = mDecor.getHeaderView(mRecyclerView, position);
-                performClick(headerView, e ,position);
+                performClick(headerView, mDecor.getHeaderHitTargets(position), e, position);
                 return true;
             }
             position = mDecor.findFooterPositionUnder((int) e.getX(), (int) e.getY());
-            if (position != -1) {
+            if (position != -1 && mDecor.getFooterBounds(position, mTempRect)) {
                 View footerView = mDecor.getFooterView(mRecyclerView, position);
-                performClick(footerView, e,position);
+                performClick(footerView, mDecor.getFooterHitTargets(position), e, position);
                 return true;
             }
             return false;
         }
 
-        private void performClick(View view, MotionEvent e,int position) {
-            if (view instanceof ViewGroup) {
-                ViewGroup viewGroup = (ViewGroup) view;
-                for (int i = 0; i < viewGroup.getChildCount(); i++) {
-                    View child = viewGroup.getChildAt(i);
-                    performClick(child, e ,position);
-                }
+        /**
+         * Dispatches the tap to the clickable view of the header under it, in the coordinates of that
+         * view. Expects the bounds of the header in mTempRect.
+         */
+        private void performClick(View view, HitTargets targets, MotionEvent e, int position) {
+            if (targets == null) {
+                targets = mTempTargets;
+                targets.build(view);
             }
-
-            containsBounds(view, e ,position);
-        }
-
-        private View containsBounds(View view, MotionEvent e ,int position) {
-            int x = (int) e.getX();
-            int y = (int) e.getY();
-            Rect rect = new Rect();
-            view.getHitRect(rect);
-            if (view.getVisibility() == View.VISIBLE
-                    && view.dispatchTouchEvent(e)
-                    && rect.left < rect.right && rect.top < rect.bottom && x >= rect.left && x < rect.right && y >= rect.top) {
-                view.setTag(position);
-                view.performClick();
-                return view;
+            int target = targets.findTargetAt((int) e.getX() - mTempRect.left, (int) e.getY() - mTempRect.top);
+            if (target == -1) {
+                return;
             }
-            return null;
+            View targetView = targets.getTarget(target);
+            float offsetX = mTempRect.left + targets.getLeft(target);
+            float offsetY = mTempRect.top + targets.getTop(target);
+            e.offsetLocation(-offsetX, -offsetY);
+            targetView.dispatchTouchEvent(e);
+            e.offsetLocation(offsetX, offsetY);
+            targetView.setTag(position);
+            targetView.performClick();
         }
 
         @Override
@@ -0,0 +1,65 @@
+package com.wujf.stickyheaderfooter.headerfooterutil;
+
+import android.widget.SectionIndexer;
+
+import com.wujf.stickyheaderfooter.core.SectionNavigator;
+
+/**
+ * A {@link SectionIndexer} over the header sections of a {@link StickyRecyclerDecoration}, for fast
+ * scrollers. Sections are the runs of items sharing a header id; both lookups are binary searches
+ * over the section index and never read ids from the adapter.
+ */
+public class StickySectionIndexer implements SectionIndexer {
+
+    /**
+     * Supplies the object shown for a section by a fast scroller, typically a letter.
+     */
+    public interface LabelProvider {
+
+        Object getSectionLabel(long headerId);
+    }
+
+    private final SectionNavigator mNavigator;
+    private final LabelProvider mLabelProvider;
+    private Object[] mSections;
+    private int mModCount;
+
+    /**
+     * @param decoration    decoration whose sections are indexed, with its section index or a header
+     *                      section strategy enabled
+     * @param labelProvider labels of the sections, or null to label them with their header id
+     */
+    public StickySectionIndexer(StickyRecyclerDecoration decoration, LabelProvider labelProvider) {
+        mNavigator = decoration.getSectionNavigator();
+        mLabelProvider = labelProvider;
+    }
+
+    @Override
+    public Object[] getSections() {
+        int modCount = mNavigator.getModCount();
+        if (mSections == null || modCount != mModCount) {
+            int count = mNavigator.getSectionCount();
+            mSections = new Object[count];
+            for (int i = 0; i < count; i++) {
+                long id = mNavigator.getSectionId(i);
+                mSections[i] = mLabelProvider != null ? mLabelProvider.getSectionLabel(id) : Long.valueOf(id);
+            }
+            mModCount = modCount;
+        }
+        return mSections;
+    }
+
+    @Override
+    public int getPositionForSection(int sectionIndex) {
+        int count = mNavigator.getSectionCount();
+        if (count == 0) {
+            return 0;
+        }
+        return mNavigator.getSectionStart(Math.max(0, Math.min(sectionIndex, count - 1)));
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        return Math.max(0, mNavigator.getSectionForPosition(position));
+    }
+}
@@ -0,0 +1,50 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.caching;
+
+import android.support.v7.widget.RecyclerView;
+
+import com.wujf.stickyheaderfooter.headerfooterutil.DecorationMetrics;
+
+import java.util.List;
+
+/**
+ * Implemented by header and footer providers that keep their views in a {@link SectionViewCache},
+ * so the decoration can bound and trim it
+ */
+public interface CachingProvider {
+
+    /**
+     * The section had no cached view, nothing was bound.
+     */
+    int REBIND_NOT_CACHED = 0;
+    /**
+     * The cached view was rebound and kept its size, it only needs to be redrawn.
+     */
+    int REBIND_UNCHANGED = 1;
+    /**
+     * The cached view was rebound and measured to a new size.
+     */
+    int REBIND_RESIZED = 2;
+
+    /**
+     * @return the cache holding the views of this provider
+     */
+    SectionViewCache getViewCache();
+
+    /**
+     * @param metrics counters to record creations, binds, measures and cache lookups into, or null to
+     *                stop recording
+     */
+    void setMetrics(DecorationMetrics metrics);
+
+    /**
+     * Binds the cached view of the section of a position again, without creating one if the section
+     * isn't cached.
+     *
+     * @param parent   the RecyclerView the views are drawn over
+     * @param position adapter position of an item of the section
+     * @param id       id of the section, as resolved by the section strategy
+     * @param payloads payloads for a partial bind, empty for a full bind
+     * @return one of {@link #REBIND_NOT_CACHED}, {@link #REBIND_UNCHANGED}, {@link #REBIND_RESIZED}
+     */
+    int rebind(RecyclerView parent, int position, long id, List<Object> payloads);
+}
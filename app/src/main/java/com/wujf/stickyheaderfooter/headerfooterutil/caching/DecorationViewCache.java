@@ -0,0 +1,183 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.caching;
+
+import android.support.v4.os.TraceCompat;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.wujf.stickyheaderfooter.headerfooterutil.DecorationMetrics;
+import com.wujf.stickyheaderfooter.headerfooterutil.util.OrientationProvider;
+
+/**
+ * Creates and caches the header or footer views of the sections, rebinding the holders of evicted
+ * sections instead of inflating new ones. {@link HeaderViewCache} and {@link FooterViewCache} only
+ * tell it how to create and bind the views of their side of the adapter.
+ */
+public abstract class DecorationViewCache implements CachingProvider {
+
+    private final SectionViewCache mViews = new SectionViewCache();
+    private final OrientationProvider mOrientationProvider;
+    private final boolean mFooter;
+    private DecorationMetrics mMetrics;
+
+    DecorationViewCache(OrientationProvider orientationProvider, boolean footer) {
+        mOrientationProvider = orientationProvider;
+        mFooter = footer;
+    }
+
+    /**
+     * @return the view type of the decoration of a position, 0 if the adapter has only one
+     */
+    abstract int getViewType(int position);
+
+    abstract RecyclerView.ViewHolder createViewHolder(RecyclerView parent, int viewType);
+
+    /**
+     * Binds the decoration of a position, partially if the adapter accepts the payloads.
+     *
+     * @param payloads payloads for a partial bind, empty for a full bind
+     */
+    abstract void bindViewHolder(RecyclerView.ViewHolder viewHolder, int position, List<Object> payloads);
+
+    /**
+     * Called when a view holder is put in the cache for a section.
+     */
+    void onCached(View view, long id) {
+    }
+
+    /**
+     * Returns the view of a section, bound to the given position if it wasn't cached, and measured.
+     */
+    View getView(RecyclerView parent, int position, long id) {
+        RecyclerView.ViewHolder viewHolder = mViews.get(id);
+        if (mMetrics != null) {
+            mMetrics.recordCacheLookup(mFooter, viewHolder != null);
+        }
+        if (viewHolder == null) {
+            int viewType = getViewType(position);
+            viewHolder = mViews.getPool().acquire(viewType);
+            if (viewHolder == null) {
+                TraceCompat.beginSection(DecorationMetrics.TRACE_CREATE);
+                try {
+                    viewHolder = createViewHolder(parent, viewType);
+                } finally {
+                    TraceCompat.endSection();
+                }
+                if (mMetrics != null) {
+                    mMetrics.recordCreate(mFooter);
+                }
+            }
+            bind(viewHolder, position, Collections.<Object>emptyList());
+            View view = viewHolder.itemView;
+            if (view.getLayoutParams() == null) {
+                view.setLayoutParams(new ViewGroup.LayoutParams(
+                        ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            }
+            mViews.put(id, viewType, viewHolder);
+            onCached(view, id);
+        }
+
+        View view = viewHolder.itemView;
+        measure(parent, id, view);
+        return view;
+    }
+
+    /**
+     * Rebinds the cached view of a section in place, for a change of its content that keeps its
+     * section. The view is measured again only if binding requested a layout.
+     *
+     * @return {@link #REBIND_NOT_CACHED}, {@link #REBIND_UNCHANGED} or {@link #REBIND_RESIZED}
+     */
+    @Override
+    public int rebind(RecyclerView parent, int position, long id, List<Object> payloads) {
+        RecyclerView.ViewHolder viewHolder = mViews.peek(id);
+        if (viewHolder == null) {
+            return REBIND_NOT_CACHED;
+        }
+        View view = viewHolder.itemView;
+        int width = view.getWidth();
+        int height = view.getHeight();
+        bind(viewHolder, position, payloads);
+        boolean layoutRequested = view.isLayoutRequested();
+        mViews.onRebound(id, layoutRequested);
+        if (!layoutRequested) {
+            return REBIND_UNCHANGED;
+        }
+        measure(parent, id, view);
+        return view.getWidth() != width || view.getHeight() != height ? REBIND_RESIZED : REBIND_UNCHANGED;
+    }
+
+    private void bind(RecyclerView.ViewHolder viewHolder, int position, List<Object> payloads) {
+        TraceCompat.beginSection(DecorationMetrics.TRACE_BIND);
+        try {
+            bindViewHolder(viewHolder, position, payloads);
+        } finally {
+            TraceCompat.endSection();
+        }
+        if (mMetrics != null) {
+            mMetrics.recordBind(mFooter);
+        }
+    }
+
+    /**
+     * Measures and lays out a cached view once per bind, and again only when the constraints of the
+     * parent change.
+     */
+    private void measure(RecyclerView parent, long id, View view) {
+        int widthSpec;
+        int heightSpec;
+
+        if (mOrientationProvider.getOrientation(parent) == LinearLayoutManager.VERTICAL) {
+            widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getWidth(), View.MeasureSpec.EXACTLY);
+            heightSpec = View.MeasureSpec.makeMeasureSpec(parent.getHeight(), View.MeasureSpec.UNSPECIFIED);
+        } else {
+            widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getWidth(), View.MeasureSpec.UNSPECIFIED);
+            heightSpec = View.MeasureSpec.makeMeasureSpec(parent.getHeight(), View.MeasureSpec.EXACTLY);
+        }
+
+        int childWidth = ViewGroup.getChildMeasureSpec(widthSpec,
+                parent.getPaddingLeft() + parent.getPaddingRight(), view.getLayoutParams().width);
+        int childHeight = ViewGroup.getChildMeasureSpec(heightSpec,
+                parent.getPaddingTop() + parent.getPaddingBottom(), view.getLayoutParams().height);
+        long measureSpecs = SectionViewCache.packMeasureSpecs(childWidth, childHeight);
+        if (mViews.getMeasureSpecs(id) != measureSpecs) {
+            TraceCompat.beginSection(DecorationMetrics.TRACE_MEASURE);
+            try {
+                view.measure(childWidth, childHeight);
+                view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+            } finally {
+                TraceCompat.endSection();
+            }
+            mViews.setMeasureSpecs(id, measureSpecs);
+            if (mMetrics != null) {
+                mMetrics.recordMeasure(mFooter);
+            }
+        }
+    }
+
+    RecyclerView.ViewHolder peek(long id) {
+        return mViews.peek(id);
+    }
+
+    public void invalidate() {
+        mViews.clear();
+    }
+
+    public void invalidate(long id) {
+        mViews.remove(id);
+    }
+
+    @Override
+    public SectionViewCache getViewCache() {
+        return mViews;
+    }
+
+    @Override
+    public void setMetrics(DecorationMetrics metrics) {
+        mMetrics = metrics;
+    }
+}
@@ -13,14 +13,23 @@ public interface FooterProvider {
      *
      * @param recyclerView that will display the header
      * @param position     that will be headed by the header
+     * @param footerId     id of the section of the position, as resolved by the section strategy
      * @return a header view for the given position and list
      */
-    public View getFooter(RecyclerView recyclerView, int position);
+    public View getFooter(RecyclerView recyclerView, int position, long footerId);
 
-    public RecyclerView.ViewHolder getFooterViewHolder(int position);
+    public RecyclerView.ViewHolder getFooterViewHolder(long footerId);
 
     /**
      * TODO: describe this functionality and its necessity
      */
     void invalidate();
+
+    /**
+     * Drops the cached footer view of a single section, so it is created and bound again the next time
+     * it is needed
+     *
+     * @param footerId id of the section to drop
+     */
+    void invalidate(long footerId);
 }
@@ -1,74 +1,71 @@
 package com.wujf.stickyheaderfooter.headerfooterutil.caching;
 
-import android.support.v4.util.LongSparseArray;
-import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
-import android.view.ViewGroup;
 
+import java.util.List;
+
+import com.wujf.stickyheaderfooter.headerfooterutil.FooterPayloadAdapter;
+import com.wujf.stickyheaderfooter.headerfooterutil.FooterViewTypeAdapter;
 import com.wujf.stickyheaderfooter.headerfooterutil.StickyRecyclerFootersAdapter;
 import com.wujf.stickyheaderfooter.headerfooterutil.util.OrientationProvider;
 
 
 /**
- * An implementation of {@link HeaderProvider} that creates and caches header views
+ * An implementation of {@link FooterProvider} that creates and caches footer views, rebinding the
+ * holders of evicted sections instead of inflating new ones
  */
-public class FooterViewCache implements FooterProvider {
+public class FooterViewCache extends DecorationViewCache implements FooterProvider {
 
     private final StickyRecyclerFootersAdapter mAdapter;
-    private final LongSparseArray<RecyclerView.ViewHolder> mFooterViews = new LongSparseArray<>();
-    private final OrientationProvider mOrientationProvider;
 
     public FooterViewCache(StickyRecyclerFootersAdapter adapter,
                            OrientationProvider orientationProvider) {
+        super(orientationProvider, true);
         mAdapter = adapter;
-        mOrientationProvider = orientationProvider;
     }
 
     @Override
-    public View getFooter(RecyclerView parent, int position) {
-        long headerId = mAdapter.getFooterId(position);
-        RecyclerView.ViewHolder viewHolder = getFooterViewHolder(position);
-        if (viewHolder == null) {
-            //TODO - recycle views
-            viewHolder = mAdapter.onCreateFooterViewHolder(parent);
-            mAdapter.onBindFooterViewHolder(viewHolder, position);
-            View footer = viewHolder.itemView;
-            if (footer.getLayoutParams() == null) {
-                footer.setLayoutParams(new ViewGroup.LayoutParams(
-                        ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
-            }
+    public View getFooter(RecyclerView parent, int position, long footerId) {
+        return getView(parent, position, footerId);
+    }
 
-            int widthSpec;
-            int heightSpec;
+    @Override
+    void onCached(View footer, long footerId) {
+        footer.setTag(footerId);
+    }
 
-            if (mOrientationProvider.getOrientation(parent) == LinearLayoutManager.VERTICAL) {
-                widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getWidth(), View.MeasureSpec.EXACTLY);
-                heightSpec = View.MeasureSpec.makeMeasureSpec(parent.getHeight(), View.MeasureSpec.UNSPECIFIED);
-            } else {
-                widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getWidth(), View.MeasureSpec.UNSPECIFIED);
-                heightSpec = View.MeasureSpec.makeMeasureSpec(parent.getHeight(), View.MeasureSpec.EXACTLY);
-            }
+    /**
+     * Payloads are passed to a {@link FooterPayloadAdapter}; other adapters get a full bind.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    void bindViewHolder(RecyclerView.ViewHolder viewHolder, int position, List<Object> payloads) {
+        if (!payloads.isEmpty() && mAdapter instanceof FooterPayloadAdapter) {
+            ((FooterPayloadAdapter) mAdapter).onBindFooterViewHolder(viewHolder, position, payloads);
+        } else {
+            mAdapter.onBindFooterViewHolder(viewHolder, position);
+        }
+    }
 
-            int childWidth = ViewGroup.getChildMeasureSpec(widthSpec,
-                    parent.getPaddingLeft() + parent.getPaddingRight(), footer.getLayoutParams().width);
-            int childHeight = ViewGroup.getChildMeasureSpec(heightSpec,
-                    parent.getPaddingTop() + parent.getPaddingBottom(), footer.getLayoutParams().height);
-            footer.measure(childWidth, childHeight);
-            footer.layout(0, 0, footer.getMeasuredWidth(), footer.getMeasuredHeight());
-            mFooterViews.put(headerId, viewHolder);
-            footer.setTag(headerId);
+    @Override
+    int getViewType(int position) {
+        if (mAdapter instanceof FooterViewTypeAdapter) {
+            return ((FooterViewTypeAdapter) mAdapter).getFooterViewType(position);
         }
-        return viewHolder.itemView;
+        return 0;
     }
 
-    public RecyclerView.ViewHolder getFooterViewHolder(int position) {
-        long footerId = mAdapter.getFooterId(position);
-        return mFooterViews.get(footerId);
+    @Override
+    RecyclerView.ViewHolder createViewHolder(RecyclerView parent, int viewType) {
+        if (mAdapter instanceof FooterViewTypeAdapter) {
+            return ((FooterViewTypeAdapter) mAdapter).onCreateFooterViewHolder(parent, viewType);
+        }
+        return mAdapter.onCreateFooterViewHolder(parent);
     }
 
     @Override
-    public void invalidate() {
-        mFooterViews.clear();
+    public RecyclerView.ViewHolder getFooterViewHolder(long footerId) {
+        return peek(footerId);
     }
 }
@@ -13,14 +13,23 @@ public interface HeaderProvider {
      *
      * @param recyclerView that will display the header
      * @param position     that will be headed by the header
+     * @param headerId     id of the section of the position, as resolved by the section strategy
      * @return a header view for the given position and list
      */
-    public View getHeader(RecyclerView recyclerView, int position);
+    public View getHeader(RecyclerView recyclerView, int position, long headerId);
 
-    public RecyclerView.ViewHolder getHeaderViewHolder(int position);
+    public RecyclerView.ViewHolder getHeaderViewHolder(long headerId);
 
     /**
      * TODO: describe this functionality and its necessity
      */
     void invalidate();
+
+    /**
+     * Drops the cached header view of a single section, so it is created and bound again the next time
+     * it is needed
+     *
+     * @param headerId id of the section to drop
+     */
+    void invalidate(long headerId);
 }
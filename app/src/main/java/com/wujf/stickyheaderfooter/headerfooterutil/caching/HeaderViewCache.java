@@ -1,75 +1,66 @@
 package com.wujf.stickyheaderfooter.headerfooterutil.caching;
 
-import android.support.v4.util.LongSparseArray;
-import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
-import android.view.ViewGroup;
 
+import java.util.List;
+
+import com.wujf.stickyheaderfooter.headerfooterutil.HeaderPayloadAdapter;
+import com.wujf.stickyheaderfooter.headerfooterutil.HeaderViewTypeAdapter;
 import com.wujf.stickyheaderfooter.headerfooterutil.StickyRecyclerHeadersAdapter;
 import com.wujf.stickyheaderfooter.headerfooterutil.util.OrientationProvider;
 
 
 /**
- * An implementation of {@link HeaderProvider} that creates and caches header views
+ * An implementation of {@link HeaderProvider} that creates and caches header views, rebinding the
+ * holders of evicted sections instead of inflating new ones
  */
-public class HeaderViewCache implements HeaderProvider {
+public class HeaderViewCache extends DecorationViewCache implements HeaderProvider {
 
     private final StickyRecyclerHeadersAdapter mAdapter;
-    private final LongSparseArray<RecyclerView.ViewHolder> mHeaderViews = new LongSparseArray<>();
-    private final OrientationProvider mOrientationProvider;
 
     public HeaderViewCache(StickyRecyclerHeadersAdapter adapter,
                            OrientationProvider orientationProvider) {
+        super(orientationProvider, false);
         mAdapter = adapter;
-        mOrientationProvider = orientationProvider;
     }
 
     @Override
-    public View getHeader(RecyclerView parent, int position) {
-        long headerId = mAdapter.getHeaderId(position);
+    public View getHeader(RecyclerView parent, int position, long headerId) {
+        return getView(parent, position, headerId);
+    }
 
-        RecyclerView.ViewHolder viewHolder = mHeaderViews.get(headerId);
-        if (viewHolder == null) {
-            //TODO - recycle views
-            viewHolder = mAdapter.onCreateHeaderViewHolder(parent);
+    /**
+     * Payloads are passed to a {@link HeaderPayloadAdapter}; other adapters get a full bind.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    void bindViewHolder(RecyclerView.ViewHolder viewHolder, int position, List<Object> payloads) {
+        if (!payloads.isEmpty() && mAdapter instanceof HeaderPayloadAdapter) {
+            ((HeaderPayloadAdapter) mAdapter).onBindHeaderViewHolder(viewHolder, position, payloads);
+        } else {
             mAdapter.onBindHeaderViewHolder(viewHolder, position);
-            View header = viewHolder.itemView;
-            if (header.getLayoutParams() == null) {
-                header.setLayoutParams(new ViewGroup.LayoutParams(
-                        ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
-            }
-
-            int widthSpec;
-            int heightSpec;
-
-            if (mOrientationProvider.getOrientation(parent) == LinearLayoutManager.VERTICAL) {
-                widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getWidth(), View.MeasureSpec.EXACTLY);
-                heightSpec = View.MeasureSpec.makeMeasureSpec(parent.getHeight(), View.MeasureSpec.UNSPECIFIED);
-            } else {
-                widthSpec = View.MeasureSpec.makeMeasureSpec(parent.getWidth(), View.MeasureSpec.UNSPECIFIED);
-                heightSpec = View.MeasureSpec.makeMeasureSpec(parent.getHeight(), View.MeasureSpec.EXACTLY);
-            }
+        }
+    }
 
-            int childWidth = ViewGroup.getChildMeasureSpec(widthSpec,
-                    parent.getPaddingLeft() + parent.getPaddingRight(), header.getLayoutParams().width);
-            int childHeight = ViewGroup.getChildMeasureSpec(heightSpec,
-                    parent.getPaddingTop() + parent.getPaddingBottom(), header.getLayoutParams().height);
-            header.measure(childWidth, childHeight);
-            header.layout(0, 0, header.getMeasuredWidth(), header.getMeasuredHeight());
-            mHeaderViews.put(headerId, viewHolder);
+    @Override
+    int getViewType(int position) {
+        if (mAdapter instanceof HeaderViewTypeAdapter) {
+            return ((HeaderViewTypeAdapter) mAdapter).getHeaderViewType(position);
         }
-        return viewHolder.itemView;
+        return 0;
     }
 
     @Override
-    public RecyclerView.ViewHolder getHeaderViewHolder(int position) {
-        long headerId = mAdapter.getHeaderId(position);
-        return mHeaderViews.get(headerId);
+    RecyclerView.ViewHolder createViewHolder(RecyclerView parent, int viewType) {
+        if (mAdapter instanceof HeaderViewTypeAdapter) {
+            return ((HeaderViewTypeAdapter) mAdapter).onCreateHeaderViewHolder(parent, viewType);
+        }
+        return mAdapter.onCreateHeaderViewHolder(parent);
     }
 
     @Override
-    public void invalidate() {
-        mHeaderViews.clear();
+    public RecyclerView.ViewHolder getHeaderViewHolder(long headerId) {
+        return peek(headerId);
     }
 }
@@ -0,0 +1,100 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.caching;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * The clickable views of a header (or footer), with their bounds relative to the header, in
+ * drawing order. Built once after the header is bound and measured, so resolving a tap is a lookup
+ * in this table rather than a walk of the view tree.
+ */
+public class HitTargets {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private View[] mViews = new View[INITIAL_CAPACITY];
+    /**
+     * left, top, right, bottom of each target, relative to the header.
+     */
+    private int[] mBounds = new int[INITIAL_CAPACITY * 4];
+    private int mCount;
+
+    /**
+     * Collects the visible clickable views of a laid out header, the header itself included.
+     */
+    public void build(View header) {
+        for (int i = 0; i < mCount; i++) {
+            mViews[i] = null;
+        }
+        mCount = 0;
+        collect(header, -header.getLeft(), -header.getTop());
+    }
+
+    private void collect(View view, int parentLeft, int parentTop) {
+        if (view.getVisibility() != View.VISIBLE) {
+            return;
+        }
+        int left = parentLeft + view.getLeft();
+        int top = parentTop + view.getTop();
+        if (view.isClickable() || view.isLongClickable()) {
+            add(view, left, top);
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                collect(viewGroup.getChildAt(i), left, top);
+            }
+        }
+    }
+
+    private void add(View view, int left, int top) {
+        if (mCount == mViews.length) {
+            View[] views = new View[mCount * 2];
+            System.arraycopy(mViews, 0, views, 0, mCount);
+            mViews = views;
+            int[] bounds = new int[mCount * 2 * 4];
+            System.arraycopy(mBounds, 0, bounds, 0, mCount * 4);
+            mBounds = bounds;
+        }
+        mViews[mCount] = view;
+        mBounds[mCount * 4] = left;
+        mBounds[mCount * 4 + 1] = top;
+        mBounds[mCount * 4 + 2] = left + view.getWidth();
+        mBounds[mCount * 4 + 3] = top + view.getHeight();
+        mCount++;
+    }
+
+    /**
+     * Finds the target under a point. Targets are drawn in the order they were collected, so the
+     * last one containing the point is the one on top.
+     *
+     * @param x x-coordinate relative to the header
+     * @param y y-coordinate relative to the header
+     * @return index of the target, or -1 if there is none under the point
+     */
+    public int findTargetAt(int x, int y) {
+        for (int i = mCount - 1; i >= 0; i--) {
+            int offset = i * 4;
+            if (x >= mBounds[offset] && x < mBounds[offset + 2] && y >= mBounds[offset + 1] && y < mBounds[offset + 3]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public View getTarget(int index) {
+        return mViews[index];
+    }
+
+    public int getLeft(int index) {
+        return mBounds[index * 4];
+    }
+
+    public int getTop(int index) {
+        return mBounds[index * 4 + 1];
+    }
+}
@@ -0,0 +1,361 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.caching;
+
+import android.content.ComponentCallbacks2;
+import android.support.v4.util.LongSparseArray;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * A bounded cache of header or footer view holders keyed by section id, evicting the least recently
+ * used sections once it holds more than its capacity.
+ * <p>
+ * Sections used since the last {@link #endFrame()} are pinned: they are the sticky and visible ones,
+ * and are never evicted by the capacity bound, even if that means going over it for a frame.
+ * <p>
+ * View holders leaving the cache go to a {@link ViewHolderPool} to be rebound to other sections,
+ * unless they leave to release memory.
+ */
+public class SectionViewCache {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    /**
+     * Measure specs of a section whose view hasn't been measured since it was bound.
+     */
+    public static final long UNMEASURED = -1;
+
+    /**
+     * Notified when a section gets a freshly bound view holder, and when it leaves the cache
+     */
+    public interface Listener {
+
+        void onSectionBound(long id);
+
+        void onSectionRemoved(long id);
+    }
+
+    private final LongSparseArray<Entry> mEntries = new LongSparseArray<>();
+    /**
+     * Sentinel of the circular LRU list: {@code mHead.next} is the least recently used entry,
+     * {@code mHead.prev} the most recently used one.
+     */
+    private final Entry mHead = new Entry();
+    private final ViewHolderPool mPool = new ViewHolderPool();
+    private int mCapacity;
+    private int mFrame;
+    private Listener mListener;
+
+    private int mHitCount;
+    private int mMissCount;
+    private int mEvictionCount;
+
+    public SectionViewCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SectionViewCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0");
+        }
+        mCapacity = capacity;
+        mHead.prev = mHead;
+        mHead.next = mHead;
+    }
+
+    /**
+     * Returns the view holder of a section, marking it as the most recently used and pinning it for
+     * the current frame.
+     *
+     * @param id section id
+     * @return the cached view holder, or null if the section isn't cached
+     */
+    public RecyclerView.ViewHolder get(long id) {
+        Entry entry = mEntries.get(id);
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        entry.frame = mFrame;
+        unlink(entry);
+        linkLast(entry);
+        return entry.holder;
+    }
+
+    /**
+     * Returns the view holder of a section without touching its recency, pin or the counters.
+     */
+    public RecyclerView.ViewHolder peek(long id) {
+        Entry entry = mEntries.get(id);
+        return entry != null ? entry.holder : null;
+    }
+
+    /**
+     * Caches the view holder of a section as the most recently used, pinned for the current frame,
+     * then evicts unpinned sections beyond the capacity.
+     *
+     * @param id       section id
+     * @param viewType view type of the holder, selecting its pool once it leaves the cache
+     * @param holder   the bound and measured view holder
+     */
+    public void put(long id, int viewType, RecyclerView.ViewHolder holder) {
+        Entry entry = mEntries.get(id);
+        if (entry == null) {
+            entry = new Entry();
+            entry.id = id;
+            mEntries.put(id, entry);
+        } else {
+            unlink(entry);
+            if (entry.holder != holder) {
+                mPool.release(entry.viewType, entry.holder);
+            }
+        }
+        entry.viewType = viewType;
+        entry.holder = holder;
+        entry.measureSpecs = UNMEASURED;
+        entry.frame = mFrame;
+        linkLast(entry);
+        if (mListener != null) {
+            mListener.onSectionBound(id);
+        }
+        trimToSize(mCapacity);
+    }
+
+    /**
+     * Records that the holder of a section was bound again in place. Listeners are notified as for
+     * {@link #put}, and the recorded measure specs are dropped if the view has to be measured again.
+     *
+     * @param remeasure TRUE if binding requested a layout of the view
+     */
+    public void onRebound(long id, boolean remeasure) {
+        Entry entry = mEntries.get(id);
+        if (entry == null) {
+            return;
+        }
+        if (remeasure) {
+            entry.measureSpecs = UNMEASURED;
+        }
+        if (mListener != null) {
+            mListener.onSectionBound(id);
+        }
+    }
+
+    /**
+     * Returns the measure specs the view of a section was last measured with, packed by
+     * {@link #packMeasureSpecs(int, int)}.
+     *
+     * @return the packed measure specs, or {@link #UNMEASURED}
+     */
+    public long getMeasureSpecs(long id) {
+        Entry entry = mEntries.get(id);
+        return entry != null ? entry.measureSpecs : UNMEASURED;
+    }
+
+    /**
+     * Records the measure specs the view of a section was just measured and laid out with, and
+     * collects the hit targets of the view.
+     */
+    public void setMeasureSpecs(long id, long measureSpecs) {
+        Entry entry = mEntries.get(id);
+        if (entry != null) {
+            entry.measureSpecs = measureSpecs;
+            if (entry.hitTargets == null) {
+                entry.hitTargets = new HitTargets();
+            }
+            entry.hitTargets.build(entry.holder.itemView);
+        }
+    }
+
+    /**
+     * @return the clickable views of a section as of its last layout, or null if the section isn't
+     * cached or hasn't been laid out
+     */
+    public HitTargets getHitTargets(long id) {
+        Entry entry = mEntries.get(id);
+        return entry != null && entry.measureSpecs != UNMEASURED ? entry.hitTargets : null;
+    }
+
+    public static long packMeasureSpecs(int widthSpec, int heightSpec) {
+        return ((long) widthSpec << 32) | (heightSpec & 0xffffffffL);
+    }
+
+    /**
+     * Drops a single section, recycling its view holder. Not counted as an eviction.
+     */
+    public void remove(long id) {
+        Entry entry = mEntries.get(id);
+        if (entry != null) {
+            unlink(entry);
+            mEntries.remove(id);
+            mPool.release(entry.viewType, entry.holder);
+            if (mListener != null) {
+                mListener.onSectionRemoved(id);
+            }
+        }
+    }
+
+    /**
+     * Drops every section, recycling their view holders. Not counted as evictions.
+     */
+    public void clear() {
+        for (Entry entry = mHead.next; entry != mHead; entry = entry.next) {
+            mPool.release(entry.viewType, entry.holder);
+        }
+        clearEntries();
+    }
+
+    private void clearEntries() {
+        if (mListener != null) {
+            for (Entry entry = mHead.next; entry != mHead; entry = entry.next) {
+                mListener.onSectionRemoved(entry.id);
+            }
+        }
+        mEntries.clear();
+        mHead.prev = mHead;
+        mHead.next = mHead;
+    }
+
+    /**
+     * Ends the current frame. Sections used during it lose their pin and can be evicted once they are
+     * the least recently used.
+     */
+    public void endFrame() {
+        mFrame++;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Sets the maximum number of sections kept, evicting unpinned ones right away if needed.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0");
+        }
+        mCapacity = capacity;
+        trimToSize(capacity);
+    }
+
+    /**
+     * Evicts the least recently used unpinned sections until at most maxSize remain, or only pinned
+     * ones do.
+     */
+    public void trimToSize(int maxSize) {
+        trimToSize(maxSize, true);
+    }
+
+    private void trimToSize(int maxSize, boolean recycle) {
+        Entry entry = mHead.next;
+        while (mEntries.size() > maxSize && entry != mHead) {
+            Entry next = entry.next;
+            if (entry.frame != mFrame) {
+                evict(entry, recycle);
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Releases memory according to a {@link ComponentCallbacks2#onTrimMemory(int)} level. Once the UI
+     * is hidden nothing is drawn, so every section and pooled holder goes; while running low only the
+     * pinned sections stay, and on moderate pressure the cache is halved.
+     */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            mEvictionCount += mEntries.size();
+            clearEntries();
+            mPool.clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimToSize(0, false);
+            mPool.clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            trimToSize(mCapacity / 2);
+        }
+    }
+
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * @return the pool receiving the view holders of evicted and invalidated sections
+     */
+    public ViewHolderPool getPool() {
+        return mPool;
+    }
+
+    public int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * @return number of {@link #get(long)} calls that found their section
+     */
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return number of {@link #get(long)} calls that didn't find their section
+     */
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return number of sections dropped by the capacity bound or memory trimming
+     */
+    public int getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    public void resetStats() {
+        mHitCount = 0;
+        mMissCount = 0;
+        mEvictionCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SectionViewCache[size=" + mEntries.size() + ", capacity=" + mCapacity + ", hits=" + mHitCount
+                + ", misses=" + mMissCount + ", evictions=" + mEvictionCount + "]";
+    }
+
+    private void evict(Entry entry, boolean recycle) {
+        unlink(entry);
+        mEntries.remove(entry.id);
+        mEvictionCount++;
+        if (recycle) {
+            mPool.release(entry.viewType, entry.holder);
+        }
+        if (mListener != null) {
+            mListener.onSectionRemoved(entry.id);
+        }
+    }
+
+    private void linkLast(Entry entry) {
+        entry.prev = mHead.prev;
+        entry.next = mHead;
+        mHead.prev.next = entry;
+        mHead.prev = entry;
+    }
+
+    private static void unlink(Entry entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static class Entry {
+        long id;
+        int viewType;
+        RecyclerView.ViewHolder holder;
+        long measureSpecs;
+        HitTargets hitTargets;
+        int frame;
+        Entry prev;
+        Entry next;
+    }
+}
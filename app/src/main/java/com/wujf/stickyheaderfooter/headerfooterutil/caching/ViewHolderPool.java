@@ -0,0 +1,87 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.caching;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps header or footer view holders that dropped out of a {@link SectionViewCache}, one pool per
+ * view type, so a new section can rebind one of them instead of inflating a new view.
+ */
+public class ViewHolderPool {
+
+    public static final int DEFAULT_MAX_PER_TYPE = 5;
+
+    private final SparseArray<ArrayList<RecyclerView.ViewHolder>> mScrap = new SparseArray<>();
+    private int mMaxPerType = DEFAULT_MAX_PER_TYPE;
+    private int mReuseCount;
+
+    /**
+     * Takes a holder of the given view type out of the pool.
+     *
+     * @return a holder to rebind, or null if the pool of that type is empty
+     */
+    public RecyclerView.ViewHolder acquire(int viewType) {
+        ArrayList<RecyclerView.ViewHolder> scrap = mScrap.get(viewType);
+        if (scrap == null || scrap.isEmpty()) {
+            return null;
+        }
+        mReuseCount++;
+        return scrap.remove(scrap.size() - 1);
+    }
+
+    /**
+     * Puts a holder no longer showing any section back in the pool of its view type. Dropped if that
+     * pool is full.
+     */
+    public void release(int viewType, RecyclerView.ViewHolder holder) {
+        ArrayList<RecyclerView.ViewHolder> scrap = mScrap.get(viewType);
+        if (scrap == null) {
+            scrap = new ArrayList<>(mMaxPerType);
+            mScrap.put(viewType, scrap);
+        }
+        if (scrap.size() < mMaxPerType) {
+            scrap.add(holder);
+        }
+    }
+
+    /**
+     * Sets how many holders are kept for each view type, dropping the extra ones right away.
+     */
+    public void setMaxPerType(int maxPerType) {
+        if (maxPerType < 0) {
+            throw new IllegalArgumentException("maxPerType < 0");
+        }
+        mMaxPerType = maxPerType;
+        for (int i = 0; i < mScrap.size(); i++) {
+            ArrayList<RecyclerView.ViewHolder> scrap = mScrap.valueAt(i);
+            while (scrap.size() > maxPerType) {
+                scrap.remove(scrap.size() - 1);
+            }
+        }
+    }
+
+    public int getMaxPerType() {
+        return mMaxPerType;
+    }
+
+    /**
+     * @return number of holders of the given view type waiting to be reused
+     */
+    public int getRecycledCount(int viewType) {
+        ArrayList<RecyclerView.ViewHolder> scrap = mScrap.get(viewType);
+        return scrap != null ? scrap.size() : 0;
+    }
+
+    /**
+     * @return number of holders handed out for rebinding instead of being created
+     */
+    public int getReuseCount() {
+        return mReuseCount;
+    }
+
+    public void clear() {
+        mScrap.clear();
+    }
+}
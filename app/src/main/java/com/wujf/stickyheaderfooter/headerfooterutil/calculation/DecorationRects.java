@@ -0,0 +1,172 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.calculation;
+
+import android.graphics.Rect;
+import android.support.v7.widget.LinearLayoutManager;
+
+import com.wujf.stickyheaderfooter.core.PositionFilter;
+import com.wujf.stickyheaderfooter.core.RectIndex;
+import com.wujf.stickyheaderfooter.headerfooterutil.ItemVisibilityAdapter;
+
+/**
+ * Bounds of the headers (or footers) drawn in the last frame, with the adapter position each was
+ * drawn for. The Rects are pooled and reused from frame to frame, so memory stays proportional to
+ * the number of decorations on screen.
+ * <p>
+ * Once a frame is finished, the rects are handed to a {@link RectIndex}, which orders them along the
+ * scroll axis and answers the hit tests.
+ */
+public class DecorationRects {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Rect[] mRects = new Rect[INITIAL_CAPACITY];
+    private int[] mPositions = new int[INITIAL_CAPACITY];
+    private int mCount;
+    private final RectIndex mIndex = new RectIndex();
+    private final VisibilityFilter mVisibilityFilter = new VisibilityFilter();
+
+    /**
+     * Forgets the rects of the previous frame, keeping the Rect instances for reuse.
+     */
+    public void beginFrame() {
+        mCount = 0;
+    }
+
+    /**
+     * Returns a Rect to hold the bounds of a decoration drawn for the given position in this frame.
+     * Its content is undefined.
+     */
+    public Rect obtain(int position) {
+        if (mCount == mRects.length) {
+            int capacity = mCount * 2;
+            Rect[] rects = new Rect[capacity];
+            System.arraycopy(mRects, 0, rects, 0, mCount);
+            mRects = rects;
+            int[] positions = new int[capacity];
+            System.arraycopy(mPositions, 0, positions, 0, mCount);
+            mPositions = positions;
+        }
+        Rect rect = mRects[mCount];
+        if (rect == null) {
+            rect = new Rect();
+            mRects[mCount] = rect;
+        }
+        mPositions[mCount] = position;
+        mCount++;
+        return rect;
+    }
+
+    /**
+     * Indexes the rects of the frame along the scroll axis, for {@link #findPositionAt}.
+     *
+     * @param orientation orientation of the list
+     */
+    public void endFrame(int orientation) {
+        mIndex.beginFrame();
+        for (int i = 0; i < mCount; i++) {
+            Rect rect = mRects[i];
+            mIndex.add(mPositions[i], rect.left, rect.top, rect.right, rect.bottom);
+        }
+        mIndex.endFrame(orientation == LinearLayoutManager.VERTICAL);
+    }
+
+    /**
+     * @return true if the point is within one of the rects of the last frame, a necessary condition
+     * for any decoration to be under it
+     */
+    public boolean contains(int x, int y) {
+        return mIndex.containsPoint(x, y);
+    }
+
+    /**
+     * Copies the union of the rects of the last frame.
+     *
+     * @return false if nothing was drawn
+     */
+    public boolean getBand(Rect outBand) {
+        if (!mIndex.hasBand()) {
+            return false;
+        }
+        outBand.set(mIndex.getBandLeft(), mIndex.getBandTop(), mIndex.getBandRight(), mIndex.getBandBottom());
+        return true;
+    }
+
+    /**
+     * Finds the decoration under a point. Where decorations overlap, the one drawn last, which is the
+     * one on top, wins.
+     *
+     * @param x                 x-coordinate
+     * @param y                 y-coordinate
+     * @param visibilityAdapter if not null, decorations of positions it reports as not visible are
+     *                          ignored
+     * @return adapter position of the decoration, or -1 if there is none under the point
+     */
+    public int findPositionAt(int x, int y, ItemVisibilityAdapter visibilityAdapter) {
+        if (visibilityAdapter == null) {
+            return mIndex.findPositionAt(x, y, null);
+        }
+        mVisibilityFilter.mAdapter = visibilityAdapter;
+        int position = mIndex.findPositionAt(x, y, mVisibilityFilter);
+        mVisibilityFilter.mAdapter = null;
+        return position;
+    }
+
+    /**
+     * Copies the bounds drawn in the last frame for a position.
+     *
+     * @return false if nothing was drawn for the position
+     */
+    public boolean getBounds(int position, Rect outBounds) {
+        int index = mIndex.indexOfPosition(position);
+        if (index < 0) {
+            return false;
+        }
+        outBounds.set(mIndex.getLeft(index), mIndex.getTop(index), mIndex.getRight(index), mIndex.getBottom(index));
+        return true;
+    }
+
+    /**
+     * @return number of decorations drawn in the last frame
+     */
+    public int getCount() {
+        return mIndex.getCount();
+    }
+
+    /**
+     * @return adapter position a decoration of the last frame was drawn for, -1 if its item has been
+     * removed since
+     */
+    public int getPosition(int index) {
+        return mIndex.getPosition(index);
+    }
+
+    /**
+     * Shifts the positions after an insertion, keeping hit tests right until the next frame is drawn.
+     */
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        mIndex.onItemRangeInserted(positionStart, itemCount);
+    }
+
+    /**
+     * Shifts the positions after a removal and drops the rects of removed positions until the next
+     * frame is drawn.
+     */
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        mIndex.onItemRangeRemoved(positionStart, itemCount);
+    }
+
+    public void clear() {
+        mCount = 0;
+        mIndex.clear();
+    }
+
+    private static class VisibilityFilter implements PositionFilter {
+
+        ItemVisibilityAdapter mAdapter;
+
+        @Override
+        public boolean accept(int position) {
+            return mAdapter.isPositionVisible(position);
+        }
+    }
+}
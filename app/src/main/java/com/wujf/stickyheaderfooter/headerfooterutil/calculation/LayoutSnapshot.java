@@ -0,0 +1,309 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.calculation;
+
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.wujf.stickyheaderfooter.core.ChildEdges;
+import com.wujf.stickyheaderfooter.headerfooterutil.util.GridLayoutOrientationProvider;
+import com.wujf.stickyheaderfooter.headerfooterutil.util.OrientationProvider;
+import com.wujf.stickyheaderfooter.headerfooterutil.util.StaggeredGridOrientationProvider;
+
+/**
+ * Layout state of a RecyclerView captured once per frame. Orientation, clip bounds and the adapter
+ * position, edges and margins of every child are read a single time and kept in reusable primitive
+ * arrays, so the per-child calculations of a frame don't go back to the RecyclerView or its
+ * LayoutManager. The child geometry itself lives in a {@link ChildEdges}, which the Android-free
+ * calculations work on.
+ * <p>
+ * Child indexes match {@link RecyclerView#getChildAt(int)} at the time of the last {@link #fill}.
+ */
+public class LayoutSnapshot {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private RecyclerView mParent;
+    private int mOrientation;
+    private boolean mReverseLayout;
+    private int mSpanCount;
+    private GridLayoutManager.SpanSizeLookup mSpanSizeLookup;
+    private boolean mStaggered;
+    private int[] mFirstVisiblePositions;
+    private int[] mLastVisiblePositions;
+    private int mFirstVisiblePosition;
+    private int mLastVisiblePosition;
+    private boolean mClipToPadding;
+    private int mWidth;
+    private int mHeight;
+    private int mPaddingLeft;
+    private int mPaddingTop;
+    private int mPaddingRight;
+    private int mPaddingBottom;
+
+    private int mChildCount;
+    private View[] mChildren = new View[INITIAL_CAPACITY];
+    private final ChildEdges mEdges = new ChildEdges();
+
+    /**
+     * Captures only the orientation, layout direction and spans. Enough for {@code getItemOffsets},
+     * which runs before the children are laid out.
+     */
+    public void fillOrientation(RecyclerView parent, OrientationProvider orientationProvider) {
+        mParent = parent;
+        mOrientation = orientationProvider.getOrientation(parent);
+        mReverseLayout = orientationProvider.isReverseLayout(parent);
+        if (orientationProvider instanceof GridLayoutOrientationProvider) {
+            GridLayoutOrientationProvider gridProvider = (GridLayoutOrientationProvider) orientationProvider;
+            mSpanCount = gridProvider.getSpanCount(parent);
+            mSpanSizeLookup = mSpanCount > 1 ? gridProvider.getSpanSizeLookup(parent) : null;
+        } else {
+            mSpanCount = 1;
+            mSpanSizeLookup = null;
+        }
+        mStaggered = orientationProvider instanceof StaggeredGridOrientationProvider
+                && ((StaggeredGridOrientationProvider) orientationProvider).isStaggered(parent);
+    }
+
+    /**
+     * Captures the whole layout state, including every attached child.
+     */
+    public void fill(RecyclerView parent, OrientationProvider orientationProvider) {
+        fillOrientation(parent, orientationProvider);
+        mClipToPadding = parent.getLayoutManager().getClipToPadding();
+        mWidth = parent.getWidth();
+        mHeight = parent.getHeight();
+        mPaddingLeft = parent.getPaddingLeft();
+        mPaddingTop = parent.getPaddingTop();
+        mPaddingRight = parent.getPaddingRight();
+        mPaddingBottom = parent.getPaddingBottom();
+
+        int childCount = parent.getChildCount();
+        ensureCapacity(childCount);
+        mEdges.begin(childCount, mOrientation == LinearLayoutManager.VERTICAL);
+        for (int i = 0; i < childCount; i++) {
+            View child = parent.getChildAt(i);
+            mChildren[i] = child;
+            ViewGroup.LayoutParams layoutParams = child.getLayoutParams();
+            int leftMargin = 0;
+            int topMargin = 0;
+            int bottomMargin = 0;
+            if (layoutParams instanceof ViewGroup.MarginLayoutParams) {
+                ViewGroup.MarginLayoutParams marginLayoutParams = (ViewGroup.MarginLayoutParams) layoutParams;
+                leftMargin = marginLayoutParams.leftMargin;
+                topMargin = marginLayoutParams.topMargin;
+                bottomMargin = marginLayoutParams.bottomMargin;
+            }
+            mEdges.set(i, parent.getChildAdapterPosition(child), child.getLeft(), child.getTop(), child.getBottom(),
+                    leftMargin, topMargin, bottomMargin);
+        }
+        for (int i = childCount; i < mChildCount; i++) {
+            // Don't keep detached views alive until the next frame
+            mChildren[i] = null;
+        }
+        mChildCount = childCount;
+        mEdges.end();
+
+        if (mStaggered) {
+            StaggeredGridOrientationProvider staggeredProvider = (StaggeredGridOrientationProvider) orientationProvider;
+            mFirstVisiblePositions = staggeredProvider.findFirstVisibleItemPositions(parent, mFirstVisiblePositions);
+            mLastVisiblePositions = staggeredProvider.findLastVisibleItemPositions(parent, mLastVisiblePositions);
+            mFirstVisiblePosition = Integer.MAX_VALUE;
+            mLastVisiblePosition = RecyclerView.NO_POSITION;
+            for (int i = 0; i < mFirstVisiblePositions.length; i++) {
+                if (mFirstVisiblePositions[i] != RecyclerView.NO_POSITION) {
+                    mFirstVisiblePosition = Math.min(mFirstVisiblePosition, mFirstVisiblePositions[i]);
+                }
+                mLastVisiblePosition = Math.max(mLastVisiblePosition, mLastVisiblePositions[i]);
+            }
+            if (mFirstVisiblePosition == Integer.MAX_VALUE) {
+                mFirstVisiblePosition = RecyclerView.NO_POSITION;
+            }
+        } else {
+            mFirstVisiblePosition = RecyclerView.NO_POSITION;
+            mLastVisiblePosition = RecyclerView.NO_POSITION;
+        }
+    }
+
+    public RecyclerView getParent() {
+        return mParent;
+    }
+
+    public int getOrientation() {
+        return mOrientation;
+    }
+
+    public boolean isReverseLayout() {
+        return mReverseLayout;
+    }
+
+    /**
+     * @return the span count of a grid or a staggered grid, 1 for a list
+     */
+    public int getSpanCount() {
+        return mSpanCount;
+    }
+
+    /**
+     * @return the SpanSizeLookup of a grid with more than one span, null otherwise
+     */
+    public GridLayoutManager.SpanSizeLookup getSpanSizeLookup() {
+        return mSpanSizeLookup;
+    }
+
+    /**
+     * @return true if the RecyclerView uses a StaggeredGridLayoutManager
+     */
+    public boolean isStaggered() {
+        return mStaggered;
+    }
+
+    /**
+     * @return smallest of the first visible positions of the spans of a staggered grid, or
+     * {@link RecyclerView#NO_POSITION}
+     */
+    public int getFirstVisiblePosition() {
+        return mFirstVisiblePosition;
+    }
+
+    /**
+     * @return largest of the last visible positions of the spans of a staggered grid, or
+     * {@link RecyclerView#NO_POSITION}
+     */
+    public int getLastVisiblePosition() {
+        return mLastVisiblePosition;
+    }
+
+    public boolean getClipToPadding() {
+        return mClipToPadding;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getPaddingLeft() {
+        return mPaddingLeft;
+    }
+
+    public int getPaddingTop() {
+        return mPaddingTop;
+    }
+
+    public int getPaddingRight() {
+        return mPaddingRight;
+    }
+
+    public int getPaddingBottom() {
+        return mPaddingBottom;
+    }
+
+    public int getListTop() {
+        return mClipToPadding ? mPaddingTop : 0;
+    }
+
+    public int getListBottom() {
+        return mClipToPadding ? mHeight - mPaddingBottom : mHeight;
+    }
+
+    public int getListLeft() {
+        return mClipToPadding ? mPaddingLeft : 0;
+    }
+
+    public int getChildCount() {
+        return mChildCount;
+    }
+
+    /**
+     * @return smallest adapter position among the children, or {@link RecyclerView#NO_POSITION}
+     */
+    public int getMinPosition() {
+        return mEdges.getMinPosition();
+    }
+
+    /**
+     * @return largest adapter position among the children, or {@link RecyclerView#NO_POSITION}
+     */
+    public int getMaxPosition() {
+        return mEdges.getMaxPosition();
+    }
+
+    /**
+     * @return true if the leading edges of the children along the scroll axis never decrease with the
+     * child index, which allows binary searches over the child edges
+     */
+    public boolean isOrderedAlongScrollAxis() {
+        return mEdges.isOrderedAlongScrollAxis();
+    }
+
+    /**
+     * @return true if the children hold ascending, contiguous adapter positions
+     */
+    public boolean hasContiguousPositions() {
+        return mEdges.hasContiguousPositions();
+    }
+
+    /**
+     * Finds the child bound to an adapter position. Children holding contiguous positions, the usual
+     * case for a LinearLayoutManager, or positions in a narrow range, as in a staggered grid, are found
+     * in constant time.
+     *
+     * @return index of the child, or -1 if no child holds the position
+     */
+    public int indexOfPosition(int position) {
+        return mEdges.indexOfPosition(position);
+    }
+
+    /**
+     * @return the edges and margins of the children, for the Android-free calculations
+     */
+    public ChildEdges getEdges() {
+        return mEdges;
+    }
+
+    public View getChildAt(int index) {
+        return mChildren[index];
+    }
+
+    /**
+     * @return adapter position of the child, or {@link RecyclerView#NO_POSITION}
+     */
+    public int getPosition(int index) {
+        return mEdges.getPosition(index);
+    }
+
+    public int getLeft(int index) {
+        return mEdges.getLeft(index);
+    }
+
+    public int getTop(int index) {
+        return mEdges.getTop(index);
+    }
+
+    public int getBottom(int index) {
+        return mEdges.getBottom(index);
+    }
+
+    public int getLeftMargin(int index) {
+        return mEdges.getLeftMargin(index);
+    }
+
+    public int getTopMargin(int index) {
+        return mEdges.getTopMargin(index);
+    }
+
+    public int getBottomMargin(int index) {
+        return mEdges.getBottomMargin(index);
+    }
+
+    private void ensureCapacity(int childCount) {
+        if (childCount > mChildren.length) {
+            mChildren = new View[Math.max(childCount, mChildren.length * 2)];
+        }
+    }
+}
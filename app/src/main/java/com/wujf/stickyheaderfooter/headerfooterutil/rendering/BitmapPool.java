@@ -0,0 +1,122 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.rendering;
+
+import android.graphics.Bitmap;
+import android.support.v4.util.LongSparseArray;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps unused bitmaps for reuse, bucketed by size. Requested sizes are rounded up to a bucket, so
+ * sections whose headers differ by a few pixels still share bitmaps.
+ * <p>
+ * The pooled bitmaps are bounded by a byte budget; a bitmap released while the pool is full is
+ * recycled instead.
+ */
+public class BitmapPool {
+
+    public static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * Size step of the buckets, in pixels.
+     */
+    private static final int BUCKET_SIZE = 16;
+
+    private final LongSparseArray<ArrayList<Bitmap>> mBuckets = new LongSparseArray<>();
+    private int mMaxBytes;
+    private int mBytes;
+
+    public BitmapPool() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public BitmapPool(int maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Returns a bitmap at least as large as requested, taken from the pool if one of the right bucket
+     * is available. Its content is undefined.
+     */
+    public Bitmap acquire(int width, int height) {
+        int bucketWidth = roundUp(width);
+        int bucketHeight = roundUp(height);
+        ArrayList<Bitmap> bucket = mBuckets.get(key(bucketWidth, bucketHeight));
+        if (bucket != null && !bucket.isEmpty()) {
+            Bitmap bitmap = bucket.remove(bucket.size() - 1);
+            mBytes -= bitmap.getByteCount();
+            return bitmap;
+        }
+        return Bitmap.createBitmap(bucketWidth, bucketHeight, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Returns a bitmap to the pool, or recycles it if it doesn't fit in the byte budget.
+     */
+    public void release(Bitmap bitmap) {
+        if (bitmap.isRecycled()) {
+            return;
+        }
+        int bytes = bitmap.getByteCount();
+        if (mBytes + bytes > mMaxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        long key = key(bitmap.getWidth(), bitmap.getHeight());
+        ArrayList<Bitmap> bucket = mBuckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            mBuckets.put(key, bucket);
+        }
+        bucket.add(bitmap);
+        mBytes += bytes;
+    }
+
+    public int getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * Sets the byte budget of the pooled bitmaps, recycling bitmaps right away if needed.
+     */
+    public void setMaxBytes(int maxBytes) {
+        mMaxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * @return number of bytes held by pooled bitmaps
+     */
+    public int getBytes() {
+        return mBytes;
+    }
+
+    /**
+     * Recycles pooled bitmaps until they hold at most maxBytes.
+     */
+    public void trimToSize(int maxBytes) {
+        for (int i = mBuckets.size() - 1; i >= 0 && mBytes > maxBytes; i--) {
+            ArrayList<Bitmap> bucket = mBuckets.valueAt(i);
+            while (!bucket.isEmpty() && mBytes > maxBytes) {
+                Bitmap bitmap = bucket.remove(bucket.size() - 1);
+                mBytes -= bitmap.getByteCount();
+                bitmap.recycle();
+            }
+        }
+    }
+
+    /**
+     * Recycles every pooled bitmap.
+     */
+    public void clear() {
+        trimToSize(0);
+        mBuckets.clear();
+    }
+
+    private static int roundUp(int size) {
+        return (size + BUCKET_SIZE - 1) / BUCKET_SIZE * BUCKET_SIZE;
+    }
+
+    private static long key(int width, int height) {
+        return ((long) width << 32) | (height & 0xffffffffL);
+    }
+}
@@ -1,63 +1,185 @@
 package com.wujf.stickyheaderfooter.headerfooterutil.rendering;
 
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Rect;
-import android.support.v7.widget.RecyclerView;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.LinearLayout;
 
 import com.wujf.stickyheaderfooter.headerfooterutil.calculation.DimensionCalculator;
-import com.wujf.stickyheaderfooter.headerfooterutil.util.OrientationProvider;
+import com.wujf.stickyheaderfooter.headerfooterutil.calculation.LayoutSnapshot;
 
 
 /**
  * Responsible for drawing headers to the canvas provided by the item decoration
+ * <p>
+ * The headers and footers of a frame are drawn between {@link #beginFrame} and {@link #endFrame}:
+ * the canvas is saved and clipped to the padding once, and each header only moves the translation
+ * by the distance from the previous one.
  */
 public class HeaderRenderer {
 
   private final DimensionCalculator mDimensionCalculator;
-  private final OrientationProvider mOrientationProvider;
 
   /**
    * The following field is used as a buffer for internal calculations. Its sole purpose is to avoid
    * allocating new Rect every time we need one.
    */
   private final Rect mTempRect = new Rect();
+  private final Rect mBitmapRect = new Rect();
 
-  public HeaderRenderer(OrientationProvider orientationProvider) {
-    this(orientationProvider, new DimensionCalculator());
+  /**
+   * Clip of the frame, kept until the size, padding or orientation of the recycler view change.
+   */
+  private final Rect mFrameClip = new Rect();
+  private int mClipWidth = -1;
+  private int mClipHeight = -1;
+  private int mClipPaddingLeft;
+  private int mClipPaddingTop;
+  private int mClipPaddingRight;
+  private int mClipPaddingBottom;
+  private int mClipOrientation;
+
+  private LayoutSnapshot mFrameSnapshot;
+  private int mFrameSaveCount;
+  private int mTranslateX;
+  private int mTranslateY;
+
+  public HeaderRenderer() {
+    this(new DimensionCalculator());
   }
 
-  private HeaderRenderer(OrientationProvider orientationProvider,
-      DimensionCalculator dimensionCalculator) {
-    mOrientationProvider = orientationProvider;
+  private HeaderRenderer(DimensionCalculator dimensionCalculator) {
     mDimensionCalculator = dimensionCalculator;
   }
 
   /**
    * Draws a header to a canvas, offsetting by some x and y amount
    *
-   * @param recyclerView the parent recycler view for drawing the header into
-   * @param canvas       the canvas on which to draw the header
-   * @param header       the view to draw as the header
-   * @param offset       a Rect used to define the x/y offset of the header. Specify x/y offset by setting
-   *                     the {@link Rect#left} and {@link Rect#top} properties, respectively.
+   * @param snapshot layout of the parent recycler view for the current frame
+   * @param canvas   the canvas on which to draw the header
+   * @param header   the view to draw as the header
+   * @param offset   a Rect used to define the x/y offset of the header. Specify x/y offset by setting
+   *                 the {@link Rect#left} and {@link Rect#top} properties, respectively.
+   */
+  public void drawHeader(LayoutSnapshot snapshot, Canvas canvas, View header, Rect offset) {
+    drawHeader(snapshot, canvas, header, offset, null, 0);
+  }
+
+  /**
+   * Draws a header to a canvas, offsetting by some x and y amount. With a snapshot cache, the header
+   * is blitted from its rasterized bitmap rather than walking its view tree.
+   *
+   * @param snapshot  layout of the parent recycler view for the current frame
+   * @param canvas    the canvas on which to draw the header
+   * @param header    the view to draw as the header
+   * @param offset    a Rect used to define the x/y offset of the header
+   * @param snapshots bitmaps of the headers, or null to draw the view itself
+   * @param id        section id of the header, keying its bitmap
    */
-  public void drawHeader(RecyclerView recyclerView, Canvas canvas, View header, Rect offset) {
+  public void drawHeader(LayoutSnapshot snapshot, Canvas canvas, View header, Rect offset,
+                         HeaderSnapshotCache snapshots, long id) {
     canvas.save();
 
-    if (recyclerView.getLayoutManager().getClipToPadding()) {
+    if (snapshot.getClipToPadding()) {
       // Clip drawing of headers to the padding of the RecyclerView. Avoids drawing in the padding
-      initClipRectForHeader(mTempRect, recyclerView, header);
+      initClipRectForHeader(mTempRect, snapshot, header);
       canvas.clipRect(mTempRect);
     }
 
     canvas.translate(offset.left, offset.top);
-
-    header.draw(canvas);
+    draw(canvas, header, snapshots, id);
     canvas.restore();
   }
 
+  /**
+   * Starts drawing the headers and footers of a frame. The canvas is saved, and clipped to the
+   * padding of the recycler view if it clips to its padding, until {@link #endFrame}.
+   *
+   * @param snapshot layout of the parent recycler view for the current frame
+   * @param canvas   the canvas on which to draw the headers
+   */
+  public void beginFrame(LayoutSnapshot snapshot, Canvas canvas) {
+    mFrameSnapshot = snapshot;
+    mFrameSaveCount = canvas.save();
+    mTranslateX = 0;
+    mTranslateY = 0;
+    if (snapshot.getClipToPadding()) {
+      canvas.clipRect(getFrameClip(snapshot));
+    }
+  }
+
+  /**
+   * Draws a header of the frame started by {@link #beginFrame}, see
+   * {@link #drawHeader(LayoutSnapshot, Canvas, View, Rect, HeaderSnapshotCache, long)}.
+   */
+  public void drawFrameHeader(Canvas canvas, View header, Rect offset, HeaderSnapshotCache snapshots, long id) {
+    LayoutSnapshot snapshot = mFrameSnapshot;
+    if (snapshot.getClipToPadding() && getTrailingMargin(snapshot, header) != 0) {
+      // The frame clip doesn't cut the trailing margin of this one, clip it on its own
+      int saveCount = canvas.save();
+      canvas.translate(-mTranslateX, -mTranslateY);
+      drawHeader(snapshot, canvas, header, offset, snapshots, id);
+      canvas.restoreToCount(saveCount);
+      return;
+    }
+    canvas.translate(offset.left - mTranslateX, offset.top - mTranslateY);
+    mTranslateX = offset.left;
+    mTranslateY = offset.top;
+    draw(canvas, header, snapshots, id);
+  }
+
+  /**
+   * Ends the frame started by {@link #beginFrame}, restoring the canvas.
+   */
+  public void endFrame(Canvas canvas) {
+    canvas.restoreToCount(mFrameSaveCount);
+    mFrameSnapshot = null;
+  }
+
+  private void draw(Canvas canvas, View header, HeaderSnapshotCache snapshots, long id) {
+    Bitmap bitmap = snapshots != null ? snapshots.getSnapshot(id, header) : null;
+    if (bitmap != null) {
+      mBitmapRect.set(0, 0, header.getWidth(), header.getHeight());
+      canvas.drawBitmap(bitmap, mBitmapRect, mBitmapRect, null);
+    } else {
+      header.draw(canvas);
+    }
+  }
+
+  private Rect getFrameClip(LayoutSnapshot snapshot) {
+    if (snapshot.getWidth() != mClipWidth || snapshot.getHeight() != mClipHeight
+        || snapshot.getPaddingLeft() != mClipPaddingLeft || snapshot.getPaddingTop() != mClipPaddingTop
+        || snapshot.getPaddingRight() != mClipPaddingRight || snapshot.getPaddingBottom() != mClipPaddingBottom
+        || snapshot.getOrientation() != mClipOrientation) {
+      mClipWidth = snapshot.getWidth();
+      mClipHeight = snapshot.getHeight();
+      mClipPaddingLeft = snapshot.getPaddingLeft();
+      mClipPaddingTop = snapshot.getPaddingTop();
+      mClipPaddingRight = snapshot.getPaddingRight();
+      mClipPaddingBottom = snapshot.getPaddingBottom();
+      mClipOrientation = snapshot.getOrientation();
+      mFrameClip.set(mClipPaddingLeft, mClipPaddingTop,
+          mClipWidth - mClipPaddingRight, mClipHeight - mClipPaddingBottom);
+    }
+    return mFrameClip;
+  }
+
+  /**
+   * @return the margin {@link #initClipRectForHeader} cuts off: the right margin of a vertical list,
+   * the bottom margin of a horizontal one
+   */
+  private static int getTrailingMargin(LayoutSnapshot snapshot, View header) {
+    ViewGroup.LayoutParams layoutParams = header.getLayoutParams();
+    if (!(layoutParams instanceof ViewGroup.MarginLayoutParams)) {
+      return 0;
+    }
+    ViewGroup.MarginLayoutParams marginLayoutParams = (ViewGroup.MarginLayoutParams) layoutParams;
+    return snapshot.getOrientation() == LinearLayout.VERTICAL
+        ? marginLayoutParams.rightMargin : marginLayoutParams.bottomMargin;
+  }
+
   /**
    * Initializes a clipping rect for the header based on the margins of the header and the padding of the
    * recycler.
@@ -66,23 +188,23 @@ public class HeaderRenderer {
    * correctly smaller width and height respectively.
    *
    * @param clipRect {@link Rect} for clipping a provided header to the padding of a recycler view
-   * @param recyclerView for which to provide a header
-   * @param header       for clipping
+   * @param snapshot layout of the recycler view for which to provide a header
+   * @param header   for clipping
    */
-  private void initClipRectForHeader(Rect clipRect, RecyclerView recyclerView, View header) {
+  private void initClipRectForHeader(Rect clipRect, LayoutSnapshot snapshot, View header) {
     mDimensionCalculator.initMargins(clipRect, header);
-    if (mOrientationProvider.getOrientation(recyclerView) == LinearLayout.VERTICAL) {
+    if (snapshot.getOrientation() == LinearLayout.VERTICAL) {
       clipRect.set(
-          recyclerView.getPaddingLeft(),
-          recyclerView.getPaddingTop(),
-          recyclerView.getWidth() - recyclerView.getPaddingRight() - clipRect.right,
-          recyclerView.getHeight() - recyclerView.getPaddingBottom());
+          snapshot.getPaddingLeft(),
+          snapshot.getPaddingTop(),
+          snapshot.getWidth() - snapshot.getPaddingRight() - clipRect.right,
+          snapshot.getHeight() - snapshot.getPaddingBottom());
     } else {
         clipRect.set(
-          recyclerView.getPaddingLeft(),
-          recyclerView.getPaddingTop(),
-          recyclerView.getWidth() - recyclerView.getPaddingRight(),
-          recyclerView.getHeight() - recyclerView.getPaddingBottom() - clipRect.bottom);
+          snapshot.getPaddingLeft(),
+          snapshot.getPaddingTop(),
+          snapshot.getWidth() - snapshot.getPaddingRight(),
+          snapshot.getHeight() - snapshot.getPaddingBottom() - clipRect.bottom);
     }
   }
 
@@ -0,0 +1,126 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.rendering;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.support.v4.util.LongSparseArray;
+import android.view.View;
+
+import com.wujf.stickyheaderfooter.headerfooterutil.caching.SectionViewCache;
+
+/**
+ * Rasterized headers (or footers) keyed by section id. A header is drawn into its bitmap once, and
+ * again only after its view holder is rebound, its size changes or it is explicitly invalidated.
+ * <p>
+ * Registered as the {@link SectionViewCache.Listener} of the view cache holding the headers, which
+ * reports rebinds and evictions. Bitmaps come from, and return to, a shared {@link BitmapPool}.
+ */
+public class HeaderSnapshotCache implements SectionViewCache.Listener {
+
+    private final LongSparseArray<Snapshot> mSnapshots = new LongSparseArray<>();
+    private final BitmapPool mBitmapPool;
+    private final Canvas mCanvas = new Canvas();
+
+    public HeaderSnapshotCache(BitmapPool bitmapPool) {
+        mBitmapPool = bitmapPool;
+    }
+
+    /**
+     * Returns the bitmap of a header, drawing the header into it first if it is missing or stale. The
+     * header occupies the top left {@code header.getWidth()} by {@code header.getHeight()} pixels.
+     *
+     * @param id     section id of the header
+     * @param header laid out header view
+     * @return the bitmap, or null if the header has no size
+     */
+    public Bitmap getSnapshot(long id, View header) {
+        int width = header.getWidth();
+        int height = header.getHeight();
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        Snapshot snapshot = mSnapshots.get(id);
+        if (snapshot == null) {
+            snapshot = new Snapshot();
+            mSnapshots.put(id, snapshot);
+        } else if (snapshot.valid && snapshot.width == width && snapshot.height == height) {
+            return snapshot.bitmap;
+        }
+
+        if (snapshot.bitmap != null
+                && (snapshot.bitmap.getWidth() < width || snapshot.bitmap.getHeight() < height)) {
+            mBitmapPool.release(snapshot.bitmap);
+            snapshot.bitmap = null;
+        }
+        if (snapshot.bitmap == null) {
+            snapshot.bitmap = mBitmapPool.acquire(width, height);
+        }
+        snapshot.bitmap.eraseColor(Color.TRANSPARENT);
+        mCanvas.setBitmap(snapshot.bitmap);
+        header.draw(mCanvas);
+        mCanvas.setBitmap(null);
+        snapshot.width = width;
+        snapshot.height = height;
+        snapshot.valid = true;
+        return snapshot.bitmap;
+    }
+
+    /**
+     * Marks the bitmap of a section as stale, so it is drawn again the next time it is needed. For
+     * header content changing without a rebind, like an image loaded asynchronously.
+     */
+    public void invalidate(long id) {
+        Snapshot snapshot = mSnapshots.get(id);
+        if (snapshot != null) {
+            snapshot.valid = false;
+        }
+    }
+
+    /**
+     * Returns every bitmap to the pool.
+     */
+    public void clear() {
+        for (int i = 0; i < mSnapshots.size(); i++) {
+            Bitmap bitmap = mSnapshots.valueAt(i).bitmap;
+            if (bitmap != null) {
+                mBitmapPool.release(bitmap);
+            }
+        }
+        mSnapshots.clear();
+    }
+
+    /**
+     * Releases memory according to a {@link ComponentCallbacks2#onTrimMemory(int)} level: once the UI
+     * is hidden or while running low, every bitmap is recycled.
+     */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            clear();
+            mBitmapPool.clear();
+        }
+    }
+
+    @Override
+    public void onSectionBound(long id) {
+        invalidate(id);
+    }
+
+    @Override
+    public void onSectionRemoved(long id) {
+        Snapshot snapshot = mSnapshots.get(id);
+        if (snapshot != null) {
+            if (snapshot.bitmap != null) {
+                mBitmapPool.release(snapshot.bitmap);
+            }
+            mSnapshots.remove(id);
+        }
+    }
+
+    private static class Snapshot {
+        Bitmap bitmap;
+        int width;
+        int height;
+        boolean valid;
+    }
+}
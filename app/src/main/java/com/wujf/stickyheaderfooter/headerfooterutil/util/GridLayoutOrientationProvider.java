@@ -0,0 +1,41 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.util;
+
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * OrientationProvider for RecyclerViews who use a LinearLayoutManager or a GridLayoutManager. For a
+ * grid, also provides the span count and the SpanSizeLookup, so headers and footers can take a whole
+ * row into account.
+ */
+public class GridLayoutOrientationProvider extends LinearLayoutOrientationProvider {
+
+    /**
+     * @return the span count of a GridLayoutManager, or 1 for any other LayoutManager
+     */
+    public int getSpanCount(RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof GridLayoutManager) {
+            return ((GridLayoutManager) layoutManager).getSpanCount();
+        }
+        return 1;
+    }
+
+    /**
+     * Returns the SpanSizeLookup of a GridLayoutManager, with its span index cache enabled so span
+     * indexes are found in O(log n) rather than recomputed from the first item.
+     *
+     * @return the SpanSizeLookup, or null for any other LayoutManager
+     */
+    public GridLayoutManager.SpanSizeLookup getSpanSizeLookup(RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof GridLayoutManager)) {
+            return null;
+        }
+        GridLayoutManager.SpanSizeLookup spanSizeLookup = ((GridLayoutManager) layoutManager).getSpanSizeLookup();
+        if (!spanSizeLookup.isSpanIndexCacheEnabled()) {
+            spanSizeLookup.setSpanIndexCacheEnabled(true);
+        }
+        return spanSizeLookup;
+    }
+}
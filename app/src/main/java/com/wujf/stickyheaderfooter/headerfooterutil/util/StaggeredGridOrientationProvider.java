@@ -0,0 +1,72 @@
+package com.wujf.stickyheaderfooter.headerfooterutil.util;
+
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+
+/**
+ * OrientationProvider for RecyclerViews who use a LinearLayoutManager, a GridLayoutManager or a
+ * StaggeredGridLayoutManager. For a staggered grid, also finds the first and last visible item of
+ * every span, from which the sticky sections are found without looking at every child.
+ */
+public class StaggeredGridOrientationProvider extends GridLayoutOrientationProvider {
+
+    @Override
+    public int getOrientation(RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof StaggeredGridLayoutManager) {
+            return ((StaggeredGridLayoutManager) layoutManager).getOrientation();
+        }
+        return super.getOrientation(recyclerView);
+    }
+
+    @Override
+    public boolean isReverseLayout(RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof StaggeredGridLayoutManager) {
+            return ((StaggeredGridLayoutManager) layoutManager).getReverseLayout();
+        }
+        return super.isReverseLayout(recyclerView);
+    }
+
+    @Override
+    public int getSpanCount(RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof StaggeredGridLayoutManager) {
+            return ((StaggeredGridLayoutManager) layoutManager).getSpanCount();
+        }
+        return super.getSpanCount(recyclerView);
+    }
+
+    /**
+     * @return true if the RecyclerView uses a StaggeredGridLayoutManager
+     */
+    public boolean isStaggered(RecyclerView recyclerView) {
+        return recyclerView.getLayoutManager() instanceof StaggeredGridLayoutManager;
+    }
+
+    /**
+     * Finds the first visible item of every span of a staggered grid.
+     *
+     * @param into array to reuse, reallocated only if its length isn't the span count
+     * @return positions by span, {@link RecyclerView#NO_POSITION} for an empty span
+     */
+    public int[] findFirstVisibleItemPositions(RecyclerView recyclerView, int[] into) {
+        StaggeredGridLayoutManager layoutManager = (StaggeredGridLayoutManager) recyclerView.getLayoutManager();
+        return layoutManager.findFirstVisibleItemPositions(ensureSize(into, layoutManager.getSpanCount()));
+    }
+
+    /**
+     * Finds the last visible item of every span of a staggered grid.
+     *
+     * @param into array to reuse, reallocated only if its length isn't the span count
+     * @return positions by span, {@link RecyclerView#NO_POSITION} for an empty span
+     */
+    public int[] findLastVisibleItemPositions(RecyclerView recyclerView, int[] into) {
+        StaggeredGridLayoutManager layoutManager = (StaggeredGridLayoutManager) recyclerView.getLayoutManager();
+        return layoutManager.findLastVisibleItemPositions(ensureSize(into, layoutManager.getSpanCount()));
+    }
+
+    private static int[] ensureSize(int[] array, int size) {
+        return array != null && array.length == size ? array : new int[size];
+    }
+}
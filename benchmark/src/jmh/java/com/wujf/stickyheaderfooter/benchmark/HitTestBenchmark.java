@@ -0,0 +1,56 @@
+package com.wujf.stickyheaderfooter.benchmark;
+
+import com.wujf.stickyheaderfooter.core.RectIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Resolving a tap to the header under it, against the rects of a frame with a header on every
+ * {@code sectionSize} items. Taps sweep the whole list, inside and between headers.
+ */
+@State(Scope.Thread)
+public class HitTestBenchmark {
+
+    private static final int TAP_STEP = 13;
+
+    @Param({"8", "32", "128"})
+    public int childCount;
+
+    @Param({"1", "8"})
+    public int sectionSize;
+
+    @Param({"true", "false"})
+    public boolean vertical;
+
+    private final RectIndex mRects = new RectIndex();
+    private int mListExtent;
+    private int mTap;
+
+    @Setup
+    public void setUp() {
+        mRects.beginFrame();
+        for (int position = 0; position < childCount; position += sectionSize) {
+            int start = position * SyntheticLayout.ITEM_EXTENT;
+            int end = start + SyntheticLayout.HEADER_EXTENT;
+            if (vertical) {
+                mRects.add(position, 0, start, SyntheticLayout.ITEM_BREADTH, end);
+            } else {
+                mRects.add(position, start, 0, end, SyntheticLayout.ITEM_BREADTH);
+            }
+        }
+        mRects.endFrame(vertical);
+        mListExtent = childCount * SyntheticLayout.ITEM_EXTENT;
+    }
+
+    @Benchmark
+    public int findPositionAt() {
+        mTap = (mTap + TAP_STEP) % mListExtent;
+        int x = vertical ? SyntheticLayout.ITEM_BREADTH / 2 : mTap;
+        int y = vertical ? mTap : SyntheticLayout.ITEM_BREADTH / 2;
+        return mRects.findPositionAt(x, y, null);
+    }
+}
@@ -0,0 +1,119 @@
+package com.wujf.stickyheaderfooter.benchmark;
+
+import com.wujf.stickyheaderfooter.core.ChildEdges;
+import com.wujf.stickyheaderfooter.core.RectIndex;
+import com.wujf.stickyheaderfooter.core.StickyGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Geometry work of one frame of the decoration, as done by StickyRecyclerDecoration and
+ * HeaderPositionCalculator: capture the children, find the sticky child, place a header before every
+ * section start, push the sticky header out of the way of the next one and index the drawn rects for
+ * hit tests. Every invocation scrolls the list by a few pixels.
+ */
+@State(Scope.Thread)
+public class StickyFrameBenchmark {
+
+    private static final int SCROLL_STEP = 7;
+
+    @Param({"8", "32", "128"})
+    public int childCount;
+
+    /**
+     * Items per section: a header on every item, a few per screen, one every few screens.
+     */
+    @Param({"1", "8", "256"})
+    public int sectionSize;
+
+    @Param({"true", "false"})
+    public boolean vertical;
+
+    @Param({"false", "true"})
+    public boolean reverse;
+
+    private SyntheticLayout mLayout;
+    private final ChildEdges mEdges = new ChildEdges();
+    private final RectIndex mRects = new RectIndex();
+    private int mScroll;
+
+    @Setup
+    public void setUp() {
+        mLayout = new SyntheticLayout(childCount, sectionSize, vertical, reverse);
+    }
+
+    @Benchmark
+    public int frame() {
+        mScroll = (mScroll + SCROLL_STEP) % (SyntheticLayout.ITEM_EXTENT * 1000);
+        mLayout.fill(mEdges, mScroll);
+        mRects.beginFrame();
+
+        int sticky = findStickyChild();
+        int count = mEdges.getCount();
+        for (int i = 0; i < count; i++) {
+            int position = mEdges.getPosition(i);
+            if (i == sticky) {
+                addHeader(position, stickyHeaderStart(i));
+            } else if (isSectionStart(position)) {
+                addHeader(position, StickyGeometry.headerStart(mEdges.getStart(i), SyntheticLayout.HEADER_EXTENT,
+                        SyntheticLayout.MARGIN, SyntheticLayout.MARGIN, 0));
+            }
+        }
+        mRects.endFrame(vertical);
+        return mRects.getCount();
+    }
+
+    private int findStickyChild() {
+        int from = 0;
+        if (vertical && mEdges.isOrderedAlongScrollAxis()) {
+            from = StickyGeometry.findFirstChildEndingAt(mEdges, 0);
+        }
+        for (int i = from; i < mEdges.getCount(); i++) {
+            if (mLayout.getEnd(mEdges, i) >= 0 && mEdges.getStart(i) <= SyntheticLayout.MARGIN) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int stickyHeaderStart(int sticky) {
+        int start = StickyGeometry.headerStart(mEdges.getStart(sticky), SyntheticLayout.HEADER_EXTENT,
+                SyntheticLayout.MARGIN, SyntheticLayout.MARGIN, 0);
+        long id = mLayout.getId(mEdges.getPosition(sticky));
+        int headerEdge = start + SyntheticLayout.HEADER_EXTENT + SyntheticLayout.MARGIN;
+        int count = mEdges.getCount();
+        int firstUnobscured;
+        if (!reverse && mEdges.hasContiguousPositions() && mEdges.isOrderedAlongScrollAxis()) {
+            firstUnobscured = Math.min(StickyGeometry.countLeadingChildrenInSection(mEdges, mLayout, id),
+                    StickyGeometry.findFirstChildStartingAt(mEdges, headerEdge));
+        } else {
+            firstUnobscured = 0;
+            while (firstUnobscured < count && mLayout.getId(mEdges.getPosition(firstUnobscured)) == id
+                    && mEdges.getStart(firstUnobscured) < headerEdge) {
+                firstUnobscured++;
+            }
+        }
+        if (firstUnobscured < count && isSectionStart(mEdges.getPosition(firstUnobscured))) {
+            int nextStart = mEdges.getStart(firstUnobscured) - SyntheticLayout.HEADER_EXTENT - 2 * SyntheticLayout.MARGIN;
+            start -= StickyGeometry.pushOffOverlap(start + SyntheticLayout.HEADER_EXTENT, SyntheticLayout.MARGIN, nextStart);
+        }
+        return start;
+    }
+
+    private boolean isSectionStart(int position) {
+        long previousId = position + (reverse ? 1 : -1) < 0 ? -1 : mLayout.getId(position + (reverse ? 1 : -1));
+        return StickyGeometry.isSectionBoundary(mLayout.getId(position), previousId);
+    }
+
+    private void addHeader(int position, int start) {
+        if (vertical) {
+            mRects.add(position, 0, start, SyntheticLayout.ITEM_BREADTH, start + SyntheticLayout.HEADER_EXTENT);
+        } else {
+            mRects.add(position, start, 0, start + SyntheticLayout.HEADER_EXTENT, SyntheticLayout.ITEM_BREADTH);
+        }
+    }
+}
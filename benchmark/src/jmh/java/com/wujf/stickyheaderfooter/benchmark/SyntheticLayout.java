@@ -0,0 +1,61 @@
+package com.wujf.stickyheaderfooter.benchmark;
+
+import com.wujf.stickyheaderfooter.core.ChildEdges;
+import com.wujf.stickyheaderfooter.core.SectionIds;
+
+/**
+ * A list of fixed size items split in sections of equal size, laid out the way a LinearLayoutManager
+ * would lay out its children once scrolled by a given amount.
+ */
+class SyntheticLayout implements SectionIds {
+
+    static final int ITEM_EXTENT = 100;
+    static final int ITEM_BREADTH = 1080;
+    static final int HEADER_EXTENT = 40;
+    static final int MARGIN = 4;
+
+    private final int mChildCount;
+    private final int mSectionSize;
+    private final boolean mVertical;
+    private final boolean mReverse;
+
+    SyntheticLayout(int childCount, int sectionSize, boolean vertical, boolean reverse) {
+        mChildCount = childCount;
+        mSectionSize = sectionSize;
+        mVertical = vertical;
+        mReverse = reverse;
+    }
+
+    /**
+     * Lays the children out scrolled by {@code scroll} pixels from the top of the list. In a reverse
+     * layout the positions descend along the scroll axis.
+     */
+    void fill(ChildEdges edges, int scroll) {
+        int firstPosition = scroll / ITEM_EXTENT;
+        int offset = -(scroll % ITEM_EXTENT);
+        edges.begin(mChildCount, mVertical);
+        for (int i = 0; i < mChildCount; i++) {
+            int position = mReverse ? firstPosition + mChildCount - 1 - i : firstPosition + i;
+            int start = offset + i * ITEM_EXTENT + MARGIN;
+            int end = start + ITEM_EXTENT - 2 * MARGIN;
+            if (mVertical) {
+                edges.set(i, position, 0, start, end, 0, MARGIN, MARGIN);
+            } else {
+                edges.set(i, position, start, 0, ITEM_BREADTH, MARGIN, 0, 0);
+            }
+        }
+        edges.end();
+    }
+
+    /**
+     * @return trailing edge of a child along the scroll axis, margin included
+     */
+    int getEnd(ChildEdges edges, int index) {
+        return edges.getStart(index) + ITEM_EXTENT;
+    }
+
+    @Override
+    public long getId(int position) {
+        return position / mSectionSize;
+    }
+}
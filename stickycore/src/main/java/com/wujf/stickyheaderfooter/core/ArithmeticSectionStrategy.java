@@ -0,0 +1,176 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * {@link SectionStrategy} for sections of a fixed size, like pages of 50 items. Every query is a
+ * division; nothing is stored per item or per section. Section {@code n} covers positions
+ * {@code [n * sectionSize, (n + 1) * sectionSize)} and has the id {@code n}, the last one ending with
+ * the adapter.
+ * <p>
+ * Insertions and removals are structural changes: they are not patched, every cached header and
+ * footer is dropped and the sections follow the new item count. Changes and moves only rebind the
+ * sections holding the changed items.
+ */
+public class ArithmeticSectionStrategy implements SectionStrategy {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final ItemCountProvider mAdapter;
+    private final int mSectionSize;
+    private int mItemCount = -1;
+    private int mModCount;
+
+    private long[] mChangedIds = new long[INITIAL_CAPACITY];
+    private int mChangedIdCount;
+
+    /**
+     * @param adapter     the adapter whose items are divided into sections
+     * @param sectionSize number of items of every section but the last
+     */
+    public ArithmeticSectionStrategy(ItemCountProvider adapter, int sectionSize) {
+        if (sectionSize <= 0) {
+            throw new IllegalArgumentException("sectionSize <= 0");
+        }
+        mAdapter = adapter;
+        mSectionSize = sectionSize;
+    }
+
+    public int getSectionSize() {
+        return mSectionSize;
+    }
+
+    @Override
+    public void invalidate() {
+        mItemCount = -1;
+    }
+
+    @Override
+    public int getItemCount() {
+        ensureUpToDate();
+        return mItemCount;
+    }
+
+    @Override
+    public int getSectionCount() {
+        ensureUpToDate();
+        return (mItemCount + mSectionSize - 1) / mSectionSize;
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        ensureUpToDate();
+        return position < 0 || position >= mItemCount ? -1 : position / mSectionSize;
+    }
+
+    @Override
+    public int getSectionStart(int section) {
+        return section * mSectionSize;
+    }
+
+    @Override
+    public int getSectionEnd(int section) {
+        ensureUpToDate();
+        return Math.min((section + 1) * mSectionSize, mItemCount) - 1;
+    }
+
+    @Override
+    public long getSectionId(int section) {
+        return section;
+    }
+
+    @Override
+    public long getId(int position) {
+        return getSectionForPosition(position);
+    }
+
+    @Override
+    public boolean isBoundary(int position, boolean atEnd) {
+        int section = getSectionForPosition(position);
+        if (section < 0) {
+            return false;
+        }
+        return atEnd ? getSectionEnd(section) == position : position % mSectionSize == 0;
+    }
+
+    @Override
+    public int getNextSectionStart(int position) {
+        int section = getSectionForPosition(position);
+        if (section < 0) {
+            return -1;
+        }
+        int next = (section + 1) * mSectionSize;
+        return next < mItemCount ? next : -1;
+    }
+
+    @Override
+    public int getModCount() {
+        ensureUpToDate();
+        return mModCount;
+    }
+
+    @Override
+    public int getChangedIdCount() {
+        return mChangedIdCount;
+    }
+
+    @Override
+    public long getChangedId(int index) {
+        return mChangedIds[index];
+    }
+
+    /**
+     * Every section after an insertion shifts its items, so the cached headers of all of them may be
+     * stale.
+     *
+     * @return false, the decoration drops every cached header
+     */
+    @Override
+    public boolean onItemRangeInserted(int positionStart, int itemCount) {
+        mChangedIdCount = 0;
+        return false;
+    }
+
+    /**
+     * Like an insertion, a removal shifts the items of every section after it.
+     *
+     * @return false, the decoration drops every cached header
+     */
+    @Override
+    public boolean onItemRangeRemoved(int positionStart, int itemCount) {
+        mChangedIdCount = 0;
+        return false;
+    }
+
+    /**
+     * The sections don't move, only the ones holding the changed items are reported.
+     */
+    @Override
+    public boolean onItemRangeChanged(int positionStart, int itemCount) {
+        mChangedIdCount = 0;
+        if (itemCount <= 0) {
+            return true;
+        }
+        int first = positionStart / mSectionSize;
+        int last = (positionStart + itemCount - 1) / mSectionSize;
+        if (last - first + 1 > mChangedIds.length) {
+            mChangedIds = new long[Math.max(last - first + 1, mChangedIds.length * 2)];
+        }
+        for (int section = first; section <= last; section++) {
+            mChangedIds[mChangedIdCount++] = section;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        return onItemRangeChanged(Math.min(fromPosition, toPosition),
+                Math.abs(fromPosition - toPosition) + itemCount);
+    }
+
+    private void ensureUpToDate() {
+        int itemCount = mAdapter.getItemCount();
+        if (itemCount != mItemCount) {
+            mItemCount = itemCount;
+            mModCount++;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.wujf.stickyheaderfooter.core;
+
+import java.util.Arrays;
+
+/**
+ * {@link SectionStrategy} for sections whose starts are known up front, like group offsets sent by a
+ * server or the bucket starts of a sorted timestamp column. The starts are kept in one sorted int
+ * array and looked up with a binary search; ids are never read from the adapter.
+ * <p>
+ * The sections are replaced as a whole through {@link #setSections(int[], long[])}, which has to be
+ * called again after items are inserted, removed or moved. Those structural changes are not patched:
+ * every cached header and footer is dropped, and until the new sections are set the old starts are
+ * only trimmed to the item count. Changes only rebind the sections holding the changed items.
+ */
+public class BoundarySectionStrategy implements SectionStrategy {
+
+    private final ItemCountProvider mAdapter;
+    private int[] mStarts = new int[0];
+    private long[] mIds;
+    private int mSectionCount;
+    private int mItemCount = -1;
+    private int mModCount;
+
+    private long[] mChangedIds = new long[0];
+    private int mChangedIdCount;
+
+    /**
+     * @param adapter the adapter whose items are divided into sections
+     */
+    public BoundarySectionStrategy(ItemCountProvider adapter) {
+        mAdapter = adapter;
+    }
+
+    /**
+     * Replaces the sections.
+     *
+     * @param starts first position of every section, ascending, the first one being 0. The last
+     *               section ends with the adapter.
+     * @param ids    id of every section, or null to number them from 0. Sections with a negative id
+     *               have no header.
+     */
+    public void setSections(int[] starts, long[] ids) {
+        if (starts.length > 0 && starts[0] != 0) {
+            throw new IllegalArgumentException("starts[0] != 0");
+        }
+        if (ids != null && ids.length < starts.length) {
+            throw new IllegalArgumentException("ids.length < starts.length");
+        }
+        for (int i = 1; i < starts.length; i++) {
+            if (starts[i] <= starts[i - 1]) {
+                throw new IllegalArgumentException("starts not ascending at " + i);
+            }
+        }
+        mStarts = starts;
+        mIds = ids;
+        // Trimmed to the adapter on the next query
+        mItemCount = -1;
+    }
+
+    @Override
+    public void invalidate() {
+        mItemCount = -1;
+    }
+
+    @Override
+    public int getItemCount() {
+        ensureUpToDate();
+        return mItemCount;
+    }
+
+    /**
+     * @return number of sections starting before the end of the adapter
+     */
+    @Override
+    public int getSectionCount() {
+        ensureUpToDate();
+        return mSectionCount;
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        ensureUpToDate();
+        if (position < 0 || position >= mItemCount || mSectionCount == 0) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(mStarts, 0, mSectionCount, position);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    @Override
+    public int getSectionStart(int section) {
+        return mStarts[section];
+    }
+
+    @Override
+    public int getSectionEnd(int section) {
+        ensureUpToDate();
+        return section + 1 < mSectionCount ? mStarts[section + 1] - 1 : mItemCount - 1;
+    }
+
+    @Override
+    public long getSectionId(int section) {
+        return mIds != null ? mIds[section] : section;
+    }
+
+    @Override
+    public long getId(int position) {
+        int section = getSectionForPosition(position);
+        return section < 0 ? -1 : getSectionId(section);
+    }
+
+    @Override
+    public boolean isBoundary(int position, boolean atEnd) {
+        int section = getSectionForPosition(position);
+        if (section < 0 || getSectionId(section) < 0) {
+            return false;
+        }
+        return atEnd ? getSectionEnd(section) == position : mStarts[section] == position;
+    }
+
+    @Override
+    public int getNextSectionStart(int position) {
+        int section = getSectionForPosition(position);
+        if (section < 0 || section + 1 >= mSectionCount) {
+            return -1;
+        }
+        return mStarts[section + 1];
+    }
+
+    @Override
+    public int getModCount() {
+        ensureUpToDate();
+        return mModCount;
+    }
+
+    @Override
+    public int getChangedIdCount() {
+        return mChangedIdCount;
+    }
+
+    @Override
+    public long getChangedId(int index) {
+        return mChangedIds[index];
+    }
+
+    /**
+     * @return false, the starts are stale until {@link #setSections(int[], long[])} is called again
+     */
+    @Override
+    public boolean onItemRangeInserted(int positionStart, int itemCount) {
+        mChangedIdCount = 0;
+        return false;
+    }
+
+    /**
+     * @return false, the starts are stale until {@link #setSections(int[], long[])} is called again
+     */
+    @Override
+    public boolean onItemRangeRemoved(int positionStart, int itemCount) {
+        mChangedIdCount = 0;
+        return false;
+    }
+
+    /**
+     * The sections don't move, only the ones holding the changed items are reported.
+     */
+    @Override
+    public boolean onItemRangeChanged(int positionStart, int itemCount) {
+        mChangedIdCount = 0;
+        if (itemCount <= 0) {
+            return true;
+        }
+        int first = getSectionForPosition(positionStart);
+        int last = getSectionForPosition(positionStart + itemCount - 1);
+        if (first < 0 || last < 0) {
+            return false;
+        }
+        if (last - first + 1 > mChangedIds.length) {
+            mChangedIds = new long[Math.max(last - first + 1, mChangedIds.length * 2)];
+        }
+        for (int section = first; section <= last; section++) {
+            mChangedIds[mChangedIdCount++] = getSectionId(section);
+        }
+        return true;
+    }
+
+    /**
+     * @return false, the starts are stale until {@link #setSections(int[], long[])} is called again
+     */
+    @Override
+    public boolean onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        mChangedIdCount = 0;
+        return false;
+    }
+
+    /**
+     * Follows the item count of the adapter, leaving out the sections starting past its end.
+     */
+    private void ensureUpToDate() {
+        int itemCount = mAdapter.getItemCount();
+        if (itemCount != mItemCount) {
+            mItemCount = itemCount;
+            int sectionCount = mStarts.length;
+            while (sectionCount > 0 && mStarts[sectionCount - 1] >= itemCount) {
+                sectionCount--;
+            }
+            mSectionCount = sectionCount;
+            mModCount++;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * Adapter position, edges and margins of the children of a list, in reusable primitive arrays.
+ * Filled once per frame between {@link #begin} and {@link #end}, which also works out how the
+ * children are ordered so they can be binary searched.
+ * <p>
+ * Knows nothing of Android views: the app fills it from the RecyclerView, the benchmarks from
+ * synthetic layouts.
+ */
+public class ChildEdges {
+
+    /**
+     * Position of a child not bound to an adapter item, same value as RecyclerView.NO_POSITION.
+     */
+    public static final int NO_POSITION = -1;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private boolean mVertical = true;
+    private int mCount;
+    private int mMinPosition = NO_POSITION;
+    private int mMaxPosition = NO_POSITION;
+    /**
+     * +1 if child i holds position {@code mPositions[0] + i}, -1 if it holds {@code mPositions[0] - i},
+     * 0 if the positions of the children are not contiguous.
+     */
+    private int mPositionStep;
+    private boolean mOrderedAlongScrollAxis;
+    private int[] mPositions = new int[INITIAL_CAPACITY];
+    private int[] mLefts = new int[INITIAL_CAPACITY];
+    private int[] mTops = new int[INITIAL_CAPACITY];
+    private int[] mBottoms = new int[INITIAL_CAPACITY];
+    private int[] mLeftMargins = new int[INITIAL_CAPACITY];
+    private int[] mTopMargins = new int[INITIAL_CAPACITY];
+    private int[] mBottomMargins = new int[INITIAL_CAPACITY];
+    /**
+     * Child index by {@code position - mMinPosition}, -1 for positions without a child. Only built
+     * when the positions of the children aren't contiguous, as in a staggered grid.
+     */
+    private int[] mIndexByPosition = new int[INITIAL_CAPACITY];
+    private boolean mHasIndexByPosition;
+
+    /**
+     * Starts a new frame of {@code count} children, each to be given with {@link #set}.
+     *
+     * @param count    number of children
+     * @param vertical TRUE if the list scrolls vertically
+     */
+    public void begin(int count, boolean vertical) {
+        ensureCapacity(count);
+        mCount = count;
+        mVertical = vertical;
+    }
+
+    public void set(int index, int position, int left, int top, int bottom,
+                    int leftMargin, int topMargin, int bottomMargin) {
+        mPositions[index] = position;
+        mLefts[index] = left;
+        mTops[index] = top;
+        mBottoms[index] = bottom;
+        mLeftMargins[index] = leftMargin;
+        mTopMargins[index] = topMargin;
+        mBottomMargins[index] = bottomMargin;
+    }
+
+    /**
+     * Finishes the frame, working out the range, contiguity and order of the children.
+     */
+    public void end() {
+        int minPosition = Integer.MAX_VALUE;
+        int maxPosition = NO_POSITION;
+        boolean ascending = mCount > 0 && mPositions[0] != NO_POSITION;
+        boolean descending = ascending;
+        boolean orderedAlongScrollAxis = true;
+        for (int i = 0; i < mCount; i++) {
+            int position = mPositions[i];
+            if (position != NO_POSITION) {
+                minPosition = Math.min(minPosition, position);
+                maxPosition = Math.max(maxPosition, position);
+            }
+            if (i > 0) {
+                ascending &= position != NO_POSITION && position == mPositions[i - 1] + 1;
+                descending &= position != NO_POSITION && position == mPositions[i - 1] - 1;
+                orderedAlongScrollAxis &= mVertical ? mTops[i] >= mTops[i - 1] : mLefts[i] >= mLefts[i - 1];
+            }
+        }
+        mMinPosition = maxPosition == NO_POSITION ? NO_POSITION : minPosition;
+        mMaxPosition = maxPosition;
+        mPositionStep = mCount == 0 ? 0 : ascending ? 1 : descending ? -1 : 0;
+        mOrderedAlongScrollAxis = orderedAlongScrollAxis;
+        buildIndexByPosition();
+    }
+
+    /**
+     * Fills mIndexByPosition when the positions of the children are neither contiguous nor spread
+     * over too wide a range for a table.
+     */
+    private void buildIndexByPosition() {
+        mHasIndexByPosition = false;
+        if (mPositionStep != 0 || mMinPosition == NO_POSITION) {
+            return;
+        }
+        int range = mMaxPosition - mMinPosition + 1;
+        if (range > mCount * 4) {
+            return;
+        }
+        if (mIndexByPosition.length < range) {
+            mIndexByPosition = new int[Math.max(range, mIndexByPosition.length * 2)];
+        }
+        for (int i = 0; i < range; i++) {
+            mIndexByPosition[i] = -1;
+        }
+        for (int i = 0; i < mCount; i++) {
+            if (mPositions[i] != NO_POSITION) {
+                mIndexByPosition[mPositions[i] - mMinPosition] = i;
+            }
+        }
+        mHasIndexByPosition = true;
+    }
+
+    public boolean isVertical() {
+        return mVertical;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @return smallest adapter position among the children, or {@link #NO_POSITION}
+     */
+    public int getMinPosition() {
+        return mMinPosition;
+    }
+
+    /**
+     * @return largest adapter position among the children, or {@link #NO_POSITION}
+     */
+    public int getMaxPosition() {
+        return mMaxPosition;
+    }
+
+    /**
+     * @return true if the leading edges of the children along the scroll axis never decrease with the
+     * child index, which allows binary searches over the child edges
+     */
+    public boolean isOrderedAlongScrollAxis() {
+        return mOrderedAlongScrollAxis;
+    }
+
+    /**
+     * @return true if the children hold ascending, contiguous adapter positions
+     */
+    public boolean hasContiguousPositions() {
+        return mPositionStep == 1;
+    }
+
+    /**
+     * Finds the child bound to an adapter position. Children holding contiguous positions, or
+     * positions in a narrow range, are found in constant time.
+     *
+     * @return index of the child, or -1 if no child holds the position
+     */
+    public int indexOfPosition(int position) {
+        if (mPositionStep != 0) {
+            int index = (position - mPositions[0]) * mPositionStep;
+            return index >= 0 && index < mCount ? index : -1;
+        }
+        if (mHasIndexByPosition) {
+            return position >= mMinPosition && position <= mMaxPosition ? mIndexByPosition[position - mMinPosition] : -1;
+        }
+        for (int i = 0; i < mCount; i++) {
+            if (mPositions[i] == position) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getPosition(int index) {
+        return mPositions[index];
+    }
+
+    public int getLeft(int index) {
+        return mLefts[index];
+    }
+
+    public int getTop(int index) {
+        return mTops[index];
+    }
+
+    public int getBottom(int index) {
+        return mBottoms[index];
+    }
+
+    public int getLeftMargin(int index) {
+        return mLeftMargins[index];
+    }
+
+    public int getTopMargin(int index) {
+        return mTopMargins[index];
+    }
+
+    public int getBottomMargin(int index) {
+        return mBottomMargins[index];
+    }
+
+    /**
+     * @return leading edge of a child along the scroll axis, margin included
+     */
+    public int getStart(int index) {
+        return mVertical ? mTops[index] - mTopMargins[index] : mLefts[index] - mLeftMargins[index];
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= mPositions.length) {
+            return;
+        }
+        int capacity = Math.max(count, mPositions.length * 2);
+        mPositions = new int[capacity];
+        mLefts = new int[capacity];
+        mTops = new int[capacity];
+        mBottoms = new int[capacity];
+        mLeftMargins = new int[capacity];
+        mTopMargins = new int[capacity];
+        mBottomMargins = new int[capacity];
+    }
+}
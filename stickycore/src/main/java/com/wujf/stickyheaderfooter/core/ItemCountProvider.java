@@ -0,0 +1,9 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * Number of items of a list, implemented by the adapters the section strategies divide into sections
+ */
+public interface ItemCountProvider {
+
+    int getItemCount();
+}
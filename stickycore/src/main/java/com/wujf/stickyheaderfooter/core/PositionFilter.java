@@ -0,0 +1,9 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * Decides which adapter positions a hit test may return.
+ */
+public interface PositionFilter {
+
+    boolean accept(int position);
+}
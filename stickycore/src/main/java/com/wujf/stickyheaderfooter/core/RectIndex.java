@@ -0,0 +1,260 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * Bounds of the decorations drawn in a frame, with the adapter position each was drawn for, kept in
+ * reusable primitive arrays.
+ * <p>
+ * Once a frame is finished, the rects are ordered along the scroll axis so a hit test is a binary
+ * search followed by a scan of the few rects that can overlap the point.
+ */
+public class RectIndex {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * left, top, right, bottom of each rect, in drawing order.
+     */
+    private int[] mBounds = new int[INITIAL_CAPACITY * 4];
+    private int[] mPositions = new int[INITIAL_CAPACITY];
+    /**
+     * Indexes of the rects, by ascending leading edge along the scroll axis.
+     */
+    private int[] mOrder = new int[INITIAL_CAPACITY];
+    private int mCount;
+    private boolean mVertical = true;
+    /**
+     * Largest extent of a rect along the scroll axis, bounding how far before a point a rect
+     * containing it can start.
+     */
+    private int mMaxExtent;
+    /**
+     * Union of the rects of the frame, empty when right <= left. With several sections on screen it
+     * spans most of the list, so it is only a first cut before testing the rects themselves.
+     */
+    private int mBandLeft;
+    private int mBandTop;
+    private int mBandRight;
+    private int mBandBottom;
+
+    /**
+     * Forgets the rects of the previous frame.
+     */
+    public void beginFrame() {
+        mCount = 0;
+    }
+
+    /**
+     * Adds the bounds of a decoration drawn for the given position in this frame.
+     *
+     * @return index of the rect, in drawing order
+     */
+    public int add(int position, int left, int top, int right, int bottom) {
+        if (mCount == mPositions.length) {
+            int capacity = mCount * 2;
+            int[] bounds = new int[capacity * 4];
+            System.arraycopy(mBounds, 0, bounds, 0, mCount * 4);
+            mBounds = bounds;
+            int[] positions = new int[capacity];
+            System.arraycopy(mPositions, 0, positions, 0, mCount);
+            mPositions = positions;
+            mOrder = new int[capacity];
+        }
+        set(mCount, left, top, right, bottom);
+        mPositions[mCount] = position;
+        return mCount++;
+    }
+
+    /**
+     * Replaces the bounds of a rect added in this frame.
+     */
+    public void set(int index, int left, int top, int right, int bottom) {
+        int offset = index * 4;
+        mBounds[offset] = left;
+        mBounds[offset + 1] = top;
+        mBounds[offset + 2] = right;
+        mBounds[offset + 3] = bottom;
+    }
+
+    /**
+     * Orders the rects of the frame along the scroll axis, for {@link #findPositionAt}.
+     *
+     * @param vertical TRUE if the list scrolls vertically
+     */
+    public void endFrame(boolean vertical) {
+        mVertical = vertical;
+        mMaxExtent = 0;
+        mBandLeft = mBandTop = mBandRight = mBandBottom = 0;
+        for (int i = 0; i < mCount; i++) {
+            int offset = i * 4;
+            int left = mBounds[offset];
+            int top = mBounds[offset + 1];
+            int right = mBounds[offset + 2];
+            int bottom = mBounds[offset + 3];
+            if (left < right && top < bottom) {
+                if (mBandLeft >= mBandRight || mBandTop >= mBandBottom) {
+                    mBandLeft = left;
+                    mBandTop = top;
+                    mBandRight = right;
+                    mBandBottom = bottom;
+                } else {
+                    mBandLeft = Math.min(mBandLeft, left);
+                    mBandTop = Math.min(mBandTop, top);
+                    mBandRight = Math.max(mBandRight, right);
+                    mBandBottom = Math.max(mBandBottom, bottom);
+                }
+            }
+            mMaxExtent = Math.max(mMaxExtent, vertical ? bottom - top : right - left);
+            // Insertion sort, the rects are few and drawn in nearly sorted order
+            int start = start(i);
+            int j = i;
+            while (j > 0 && start(mOrder[j - 1]) > start) {
+                mOrder[j] = mOrder[j - 1];
+                j--;
+            }
+            mOrder[j] = i;
+        }
+    }
+
+    /**
+     * @return true if the point is within one of the rects of the last frame, whatever its position
+     */
+    public boolean containsPoint(int x, int y) {
+        if (!hasBand() || x < mBandLeft || x >= mBandRight || y < mBandTop || y >= mBandBottom) {
+            return false;
+        }
+        return findPositionAt(x, y, null) >= 0;
+    }
+
+    /**
+     * @return true if the union of the rects of the last frame is not empty
+     */
+    public boolean hasBand() {
+        return mBandLeft < mBandRight && mBandTop < mBandBottom;
+    }
+
+    public int getBandLeft() {
+        return mBandLeft;
+    }
+
+    public int getBandTop() {
+        return mBandTop;
+    }
+
+    public int getBandRight() {
+        return mBandRight;
+    }
+
+    public int getBandBottom() {
+        return mBandBottom;
+    }
+
+    /**
+     * Finds the decoration under a point. Where decorations overlap, the one drawn last, which is the
+     * one on top, wins.
+     *
+     * @param x      x-coordinate
+     * @param y      y-coordinate
+     * @param filter if not null, positions it rejects are ignored
+     * @return adapter position of the decoration, or -1 if there is none under the point
+     */
+    public int findPositionAt(int x, int y, PositionFilter filter) {
+        int point = mVertical ? y : x;
+        // First rect that may contain the point: none before it starts late enough
+        int low = 0;
+        int high = mCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (start(mOrder[mid]) <= point - mMaxExtent) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int found = -1;
+        for (int i = low; i < mCount && start(mOrder[i]) <= point; i++) {
+            int index = mOrder[i];
+            if (index > found && mPositions[index] >= 0 && contains(index, x, y)
+                    && (filter == null || filter.accept(mPositions[index]))) {
+                found = index;
+            }
+        }
+        return found >= 0 ? mPositions[found] : -1;
+    }
+
+    /**
+     * @return index, in drawing order, of the last rect drawn for a position, or -1 if there is none
+     */
+    public int indexOfPosition(int position) {
+        for (int i = mCount - 1; i >= 0; i--) {
+            if (mPositions[i] == position) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public int getPosition(int index) {
+        return mPositions[index];
+    }
+
+    public int getLeft(int index) {
+        return mBounds[index * 4];
+    }
+
+    public int getTop(int index) {
+        return mBounds[index * 4 + 1];
+    }
+
+    public int getRight(int index) {
+        return mBounds[index * 4 + 2];
+    }
+
+    public int getBottom(int index) {
+        return mBounds[index * 4 + 3];
+    }
+
+    /**
+     * Shifts the positions after an insertion, keeping hit tests right until the next frame is drawn.
+     */
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        for (int i = 0; i < mCount; i++) {
+            if (mPositions[i] >= positionStart) {
+                mPositions[i] += itemCount;
+            }
+        }
+    }
+
+    /**
+     * Shifts the positions after a removal and drops the rects of removed positions until the next
+     * frame is drawn.
+     */
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        for (int i = 0; i < mCount; i++) {
+            int position = mPositions[i];
+            if (position >= positionStart + itemCount) {
+                mPositions[i] = position - itemCount;
+            } else if (position >= positionStart) {
+                mPositions[i] = -1;
+            }
+        }
+    }
+
+    public void clear() {
+        mCount = 0;
+        mBandLeft = mBandTop = mBandRight = mBandBottom = 0;
+    }
+
+    private boolean contains(int index, int x, int y) {
+        int offset = index * 4;
+        return mBounds[offset] < mBounds[offset + 2] && mBounds[offset + 1] < mBounds[offset + 3]
+                && x >= mBounds[offset] && x < mBounds[offset + 2] && y >= mBounds[offset + 1] && y < mBounds[offset + 3];
+    }
+
+    private int start(int index) {
+        return mBounds[index * 4 + (mVertical ? 1 : 0)];
+    }
+}
@@ -0,0 +1,16 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * Section id of every adapter position, header or footer ids alike. A negative id means the item
+ * has no header (or footer).
+ */
+public interface SectionIds {
+
+    /**
+     * Id of an item whose section isn't known yet, like a placeholder of a paged list. It has no
+     * header, and the item next to it doesn't start a section, since its section may go on into it.
+     */
+    long UNKNOWN_ID = Long.MIN_VALUE;
+
+    long getId(int position);
+}
@@ -0,0 +1,552 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * {@link SectionStrategy} built from the ids the adapter returns for its positions, the fallback for
+ * sections with no simpler structure. The start position of every section is kept in a
+ * sorted primitive array, so boundary checks and section lookups are answered from the index
+ * instead of asking the adapter for ids on every frame.
+ * <p>
+ * A section is a maximal run of consecutive positions sharing the same id. The index is built
+ * lazily on first use and rebuilt after {@link #invalidate()} or when the item count changes.
+ * Range updates reported by the adapter are applied incrementally: only the positions around the
+ * updated range are read again, and the ids of the sections they touched are reported through
+ * {@link #getChangedIdCount()} and {@link #getChangedId(int)}.
+ * <p>
+ * Runs of {@link SectionIds#UNKNOWN_ID unknown} ids, the placeholders of a paged list, are kept as
+ * sections of their own. Loading a page is a range change: only the page and its neighbours are
+ * read again, however long the list.
+ */
+public class SectionIndex implements SectionStrategy {
+
+    /**
+     * Source of the ids grouped by a {@link SectionIndex}
+     */
+    public interface IdLookup {
+
+        long getId(int position);
+
+        int getItemCount();
+
+        /**
+         * Copies the ids of {@code [from, to)} into {@code out}, starting at index 0.
+         */
+        void getIds(int from, int to, long[] out);
+
+        /**
+         * @return the number of sections if they are known without reading the ids, -1 otherwise
+         */
+        int getSectionCount();
+
+        /**
+         * Copies the first position and the id of every section counted by {@link #getSectionCount()}.
+         */
+        void getSections(int[] starts, long[] ids);
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Number of ids read from the lookup per call.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    private final IdLookup mLookup;
+
+    /**
+     * Sections live in {@code [mHead, mHead + mSectionCount)} of these arrays, leaving free room on both
+     * sides so sections can be added at either end without moving the others. A stored start is
+     * relative to {@link #mBase}, which lets an update shift whichever side of the array is smaller.
+     */
+    private int[] mStarts = new int[INITIAL_CAPACITY];
+    private long[] mIds = new long[INITIAL_CAPACITY];
+    private int mHead;
+    private int mBase;
+    private int mSectionCount;
+    private int mItemCount;
+    private boolean mDirty = true;
+    /**
+     * Incremented every time the sections are rebuilt or updated.
+     */
+    private int mModCount;
+
+    /**
+     * Section of the last lookup. Children are queried in layout order, so the next query is
+     * usually answered by this section or its neighbour without a binary search.
+     */
+    private int mLastSection;
+
+    private final long[] mBatch = new long[BATCH_SIZE];
+
+    private long[] mChangedIds = new long[INITIAL_CAPACITY];
+    private int mChangedIdCount;
+
+    public SectionIndex(IdLookup lookup) {
+        mLookup = lookup;
+    }
+
+    /**
+     * Marks the index as stale. It will be rebuilt on the next query.
+     */
+    @Override
+    public void invalidate() {
+        mDirty = true;
+    }
+
+    @Override
+    public int getItemCount() {
+        ensureBuilt();
+        return mItemCount;
+    }
+
+    @Override
+    public int getSectionCount() {
+        ensureBuilt();
+        return mSectionCount;
+    }
+
+    /**
+     * @param position adapter position
+     * @return index of the section containing the position, or -1 if the position is out of bounds
+     */
+    @Override
+    public int getSectionForPosition(int position) {
+        ensureBuilt();
+        return findSection(position);
+    }
+
+    @Override
+    public int getSectionStart(int section) {
+        ensureBuilt();
+        return start(section);
+    }
+
+    /**
+     * @return the last position (inclusive) of the given section
+     */
+    @Override
+    public int getSectionEnd(int section) {
+        ensureBuilt();
+        return end(section);
+    }
+
+    @Override
+    public long getSectionId(int section) {
+        ensureBuilt();
+        return mIds[mHead + section];
+    }
+
+    /**
+     * @return the id of the given position, or -1 if the position is out of bounds
+     */
+    @Override
+    public long getId(int position) {
+        int section = getSectionForPosition(position);
+        return section < 0 ? -1 : mIds[mHead + section];
+    }
+
+    /**
+     * Determines if a position is the first (or the last) position of a section that has a valid id.
+     *
+     * @param position adapter position
+     * @param atEnd    TRUE to check for the last position of the section instead of the first
+     * @return true if the position is on the requested boundary of its section
+     */
+    @Override
+    public boolean isBoundary(int position, boolean atEnd) {
+        int section = getSectionForPosition(position);
+        if (section < 0 || mIds[mHead + section] < 0) {
+            return false;
+        }
+        if (atEnd) {
+            return end(section) == position
+                    && (section + 1 == mSectionCount || mIds[mHead + section + 1] != SectionIds.UNKNOWN_ID);
+        }
+        return start(section) == position && (section == 0 || mIds[mHead + section - 1] != SectionIds.UNKNOWN_ID);
+    }
+
+    /**
+     * @return the first position of the section following the one containing the position, or -1 if
+     * there is none
+     */
+    @Override
+    public int getNextSectionStart(int position) {
+        int section = getSectionForPosition(position);
+        if (section < 0 || section + 1 >= mSectionCount) {
+            return -1;
+        }
+        return start(section + 1);
+    }
+
+    /**
+     * Brings the index up to date and returns a counter that changes every time its sections do, so
+     * structures derived from the index know when to be rebuilt.
+     */
+    @Override
+    public int getModCount() {
+        ensureBuilt();
+        return mModCount;
+    }
+
+    /**
+     * @return number of section ids touched by the last range update
+     */
+    @Override
+    public int getChangedIdCount() {
+        return mChangedIdCount;
+    }
+
+    /**
+     * @return an id of a section touched by the last range update. Ids may be reported more than once.
+     */
+    @Override
+    public long getChangedId(int index) {
+        return mChangedIds[index];
+    }
+
+    /**
+     * Applies an insertion reported by the adapter. The adapter must already contain the new items.
+     *
+     * @return false if the index was stale and will be rebuilt instead
+     */
+    @Override
+    public boolean onItemRangeInserted(int positionStart, int itemCount) {
+        if (!beginUpdate(itemCount)) {
+            return false;
+        }
+        applyInsert(positionStart, itemCount);
+        return true;
+    }
+
+    /**
+     * Applies a removal reported by the adapter. The adapter must no longer contain the removed items.
+     *
+     * @return false if the index was stale and will be rebuilt instead
+     */
+    @Override
+    public boolean onItemRangeRemoved(int positionStart, int itemCount) {
+        if (!beginUpdate(-itemCount)) {
+            return false;
+        }
+        applyRemove(positionStart, itemCount);
+        return true;
+    }
+
+    /**
+     * Applies a change reported by the adapter. The ids of the changed items are read again.
+     *
+     * @return false if the index was stale and will be rebuilt instead
+     */
+    @Override
+    public boolean onItemRangeChanged(int positionStart, int itemCount) {
+        if (!beginUpdate(0)) {
+            return false;
+        }
+        applyChange(positionStart, positionStart + itemCount);
+        return true;
+    }
+
+    /**
+     * Applies a move reported by the adapter. Every position between the old and the new location
+     * of the moved items has changed, so the ids of that range are read again.
+     *
+     * @return false if the index was stale and will be rebuilt instead
+     */
+    @Override
+    public boolean onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        if (!beginUpdate(0)) {
+            return false;
+        }
+        applyChange(Math.min(fromPosition, toPosition), Math.max(fromPosition, toPosition) + itemCount);
+        return true;
+    }
+
+    /**
+     * Starts a range update, checking that the index is built and that the adapter changed by the
+     * reported amount. Otherwise the index is left to be rebuilt on the next query.
+     */
+    private boolean beginUpdate(int itemCountDelta) {
+        mChangedIdCount = 0;
+        mLastSection = 0;
+        if (mDirty) {
+            return false;
+        }
+        if (mLookup.getItemCount() != mItemCount + itemCountDelta) {
+            mDirty = true;
+            return false;
+        }
+        mModCount++;
+        return true;
+    }
+
+    private void applyInsert(int positionStart, int itemCount) {
+        recordSectionAt(positionStart - 1);
+        recordSectionAt(positionStart);
+        offsetStarts(positionStart, itemCount);
+        mItemCount += itemCount;
+        patch(positionStart, positionStart + itemCount);
+    }
+
+    private void applyChange(int positionStart, int positionEnd) {
+        recordSectionAt(positionStart - 1);
+        for (int position = positionStart; position < positionEnd; ) {
+            int section = findSection(position);
+            if (section < 0) {
+                break;
+            }
+            recordChangedId(mIds[mHead + section]);
+            position = end(section) + 1;
+        }
+        patch(positionStart, positionEnd);
+    }
+
+    private void applyRemove(int positionStart, int itemCount) {
+        int positionEnd = positionStart + itemCount;
+        recordSectionAt(positionStart - 1);
+        int from = lowerBound(positionStart);
+        int to = lowerBound(positionEnd);
+        if (from > 0 && (from == mSectionCount || start(from) > positionStart)) {
+            recordChangedId(mIds[mHead + from - 1]);
+        }
+        for (int i = from; i < to; i++) {
+            recordChangedId(mIds[mHead + i]);
+        }
+        removeSections(from, to);
+        offsetStarts(positionEnd, -itemCount);
+        mItemCount -= itemCount;
+        patch(positionStart, positionStart);
+    }
+
+    /**
+     * Reads the ids of {@code [from, to]} again and rebuilds the section starts in that range. The
+     * sections before {@code from} must be up to date.
+     */
+    private void patch(int from, int to) {
+        to = Math.min(to, mItemCount - 1);
+        if (from > to) {
+            return;
+        }
+        int first = lowerBound(from);
+        int last = lowerBound(to + 1);
+        for (int i = first; i < last; i++) {
+            recordChangedId(mIds[mHead + i]);
+        }
+        removeSections(first, last);
+
+        int index = first;
+        boolean hasPrevious = from > 0 && first > 0;
+        long previousId = hasPrevious ? mIds[mHead + first - 1] : 0;
+        for (int batchStart = from; batchStart <= to; batchStart += BATCH_SIZE) {
+            int batchEnd = Math.min(batchStart + BATCH_SIZE, to + 1);
+            mLookup.getIds(batchStart, batchEnd, mBatch);
+            for (int position = batchStart; position < batchEnd; position++) {
+                long id = mBatch[position - batchStart];
+                if (!hasPrevious || id != previousId) {
+                    insertSection(index++, position, id);
+                    recordChangedId(id);
+                    previousId = id;
+                    hasPrevious = true;
+                }
+            }
+        }
+    }
+
+    private void recordSectionAt(int position) {
+        int section = findSection(position);
+        if (section >= 0) {
+            recordChangedId(mIds[mHead + section]);
+        }
+    }
+
+    private void recordChangedId(long id) {
+        if (mChangedIdCount == mChangedIds.length) {
+            long[] ids = new long[mChangedIdCount * 2];
+            System.arraycopy(mChangedIds, 0, ids, 0, mChangedIdCount);
+            mChangedIds = ids;
+        }
+        mChangedIds[mChangedIdCount++] = id;
+    }
+
+    private int findSection(int position) {
+        if (position < 0 || position >= mItemCount) {
+            return -1;
+        }
+        int last = mLastSection;
+        if (last < mSectionCount && start(last) <= position) {
+            if (last + 1 == mSectionCount || position < start(last + 1)) {
+                return last;
+            }
+            if (last + 2 == mSectionCount || position < start(last + 2)) {
+                return mLastSection = last + 1;
+            }
+        }
+        return mLastSection = binarySearch(position);
+    }
+
+    private int start(int section) {
+        return mStarts[mHead + section] + mBase;
+    }
+
+    private int end(int section) {
+        return section + 1 < mSectionCount ? start(section + 1) - 1 : mItemCount - 1;
+    }
+
+    /**
+     * @return index of the last section starting at or before the position
+     */
+    private int binarySearch(int position) {
+        int low = 0;
+        int high = mSectionCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (start(mid) <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first section starting at or after the position
+     */
+    private int lowerBound(int position) {
+        int low = 0;
+        int high = mSectionCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (start(mid) < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Adds delta to the start of every section starting at or after the position. Whichever side of
+     * the array is smaller is updated, so changes at either end of the list are O(1).
+     */
+    private void offsetStarts(int position, int delta) {
+        int index = lowerBound(position);
+        if (mSectionCount - index <= index) {
+            for (int i = mHead + index; i < mHead + mSectionCount; i++) {
+                mStarts[i] += delta;
+            }
+        } else {
+            mBase += delta;
+            for (int i = mHead; i < mHead + index; i++) {
+                mStarts[i] -= delta;
+            }
+        }
+    }
+
+    private void insertSection(int index, int start, long id) {
+        boolean moveHead = index < mSectionCount - index;
+        if (moveHead ? mHead == 0 : mHead + mSectionCount == mStarts.length) {
+            recenter();
+        }
+        if (moveHead) {
+            System.arraycopy(mStarts, mHead, mStarts, mHead - 1, index);
+            System.arraycopy(mIds, mHead, mIds, mHead - 1, index);
+            mHead--;
+        } else {
+            int at = mHead + index;
+            System.arraycopy(mStarts, at, mStarts, at + 1, mSectionCount - index);
+            System.arraycopy(mIds, at, mIds, at + 1, mSectionCount - index);
+        }
+        mStarts[mHead + index] = start - mBase;
+        mIds[mHead + index] = id;
+        mSectionCount++;
+    }
+
+    private void removeSections(int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        if (from < mSectionCount - to) {
+            System.arraycopy(mStarts, mHead, mStarts, mHead + count, from);
+            System.arraycopy(mIds, mHead, mIds, mHead + count, from);
+            mHead += count;
+        } else {
+            System.arraycopy(mStarts, mHead + to, mStarts, mHead + from, mSectionCount - to);
+            System.arraycopy(mIds, mHead + to, mIds, mHead + from, mSectionCount - to);
+        }
+        mSectionCount -= count;
+    }
+
+    /**
+     * Moves the sections to the middle of the arrays, growing them if less than half is free.
+     */
+    private void recenter() {
+        int capacity = mStarts.length;
+        if (mSectionCount * 2 + 2 > capacity) {
+            capacity = Math.max(INITIAL_CAPACITY, mSectionCount * 2 + 2) * 2;
+        }
+        int head = (capacity - mSectionCount) / 2;
+        int[] starts = capacity == mStarts.length ? mStarts : new int[capacity];
+        long[] ids = capacity == mIds.length ? mIds : new long[capacity];
+        System.arraycopy(mStarts, mHead, starts, head, mSectionCount);
+        System.arraycopy(mIds, mHead, ids, head, mSectionCount);
+        mStarts = starts;
+        mIds = ids;
+        mHead = head;
+    }
+
+    private void ensureBuilt() {
+        if (mDirty || mItemCount != mLookup.getItemCount()) {
+            build();
+        }
+    }
+
+    private void build() {
+        int itemCount = mLookup.getItemCount();
+        mSectionCount = 0;
+        mHead = 0;
+        mBase = 0;
+        mLastSection = 0;
+        int sectionCount = itemCount > 0 ? mLookup.getSectionCount() : -1;
+        if (sectionCount >= 0) {
+            // The adapter knows its groups, take them as they are
+            if (mStarts.length < sectionCount) {
+                mStarts = new int[sectionCount];
+                mIds = new long[sectionCount];
+            }
+            mLookup.getSections(mStarts, mIds);
+            mSectionCount = sectionCount;
+        } else {
+            long previousId = 0;
+            for (int batchStart = 0; batchStart < itemCount; batchStart += BATCH_SIZE) {
+                int batchEnd = Math.min(batchStart + BATCH_SIZE, itemCount);
+                mLookup.getIds(batchStart, batchEnd, mBatch);
+                for (int position = batchStart; position < batchEnd; position++) {
+                    long id = mBatch[position - batchStart];
+                    if (position == 0 || id != previousId) {
+                        append(position, id);
+                        previousId = id;
+                    }
+                }
+            }
+        }
+        mItemCount = itemCount;
+        mDirty = false;
+        mModCount++;
+    }
+
+    private void append(int start, long id) {
+        if (mSectionCount == mStarts.length) {
+            int capacity = mSectionCount * 2;
+            int[] starts = new int[capacity];
+            long[] ids = new long[capacity];
+            System.arraycopy(mStarts, 0, starts, 0, mSectionCount);
+            System.arraycopy(mIds, 0, ids, 0, mSectionCount);
+            mStarts = starts;
+            mIds = ids;
+        }
+        mStarts[mSectionCount] = start;
+        mIds[mSectionCount] = id;
+        mSectionCount++;
+    }
+}
@@ -0,0 +1,155 @@
+package com.wujf.stickyheaderfooter.core;
+
+import java.util.Arrays;
+
+/**
+ * Navigation over the sections of a {@link SectionStrategy} that have a header, i.e. a non-negative id.
+ * Navigable sections are numbered from 0 in position order.
+ * <p>
+ * Lookups by position are binary searches over the section starts, lookups by id binary searches over
+ * the ids sorted once per change of the index; none of them reads ids from the adapter.
+ */
+public class SectionNavigator {
+
+    private final SectionStrategy mIndex;
+    private int mModCount = -1;
+
+    /**
+     * Section of the index of every navigable section, ascending.
+     */
+    private int[] mSections = new int[0];
+    private int mCount;
+    /**
+     * Distinct ids of the navigable sections, ascending, and the first navigable section of each.
+     */
+    private long[] mSortedIds = new long[0];
+    private int[] mFirstSections = new int[0];
+    private int mIdCount;
+
+    public SectionNavigator(SectionStrategy index) {
+        mIndex = index;
+    }
+
+    public SectionStrategy getIndex() {
+        return mIndex;
+    }
+
+    /**
+     * @return a counter that changes every time the sections do
+     */
+    public int getModCount() {
+        return mIndex.getModCount();
+    }
+
+    public int getSectionCount() {
+        ensureUpToDate();
+        return mCount;
+    }
+
+    /**
+     * @return the navigable section containing the position, or the last one before it when the
+     * position is in a section without a header; -1 if there is none
+     */
+    public int getSectionForPosition(int position) {
+        ensureUpToDate();
+        int section = mIndex.getSectionForPosition(position);
+        if (section < 0) {
+            return position < 0 || mCount == 0 ? -1 : mCount - 1;
+        }
+        // Last navigable section at or before the section of the position
+        int low = 0;
+        int high = mCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mSections[mid] <= section) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * @return first position of a navigable section, or -1 if the section is out of bounds
+     */
+    public int getSectionStart(int section) {
+        ensureUpToDate();
+        return section >= 0 && section < mCount ? mIndex.getSectionStart(mSections[section]) : -1;
+    }
+
+    /**
+     * @return header id of a navigable section, or -1 if the section is out of bounds
+     */
+    public long getSectionId(int section) {
+        ensureUpToDate();
+        return section >= 0 && section < mCount ? mIndex.getSectionId(mSections[section]) : -1;
+    }
+
+    /**
+     * @return the first navigable section with the given header id, or -1 if there is none
+     */
+    public int findSection(long id) {
+        ensureUpToDate();
+        if (id < 0) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(mSortedIds, 0, mIdCount, id);
+        return index >= 0 ? mFirstSections[index] : -1;
+    }
+
+    /**
+     * @return first position of the first navigable section starting after the position, or -1
+     */
+    public int getNextSectionStart(int position) {
+        return getSectionStart(getSectionForPosition(position) + 1);
+    }
+
+    /**
+     * @return first position of the last navigable section starting before the position, or -1. From
+     * inside a section, that is the start of the section itself.
+     */
+    public int getPreviousSectionStart(int position) {
+        int section = getSectionForPosition(position);
+        if (section >= 0 && getSectionStart(section) >= position) {
+            section--;
+        }
+        return getSectionStart(section);
+    }
+
+    private void ensureUpToDate() {
+        int modCount = mIndex.getModCount();
+        if (modCount == mModCount) {
+            return;
+        }
+        mModCount = modCount;
+        int sectionCount = mIndex.getSectionCount();
+        if (mSections.length < sectionCount) {
+            mSections = new int[sectionCount];
+            mSortedIds = new long[sectionCount];
+            mFirstSections = new int[sectionCount];
+        }
+        mCount = 0;
+        for (int section = 0; section < sectionCount; section++) {
+            long id = mIndex.getSectionId(section);
+            if (id >= 0) {
+                mSortedIds[mCount] = id;
+                mSections[mCount++] = section;
+            }
+        }
+        Arrays.sort(mSortedIds, 0, mCount);
+        mIdCount = 0;
+        for (int i = 0; i < mCount; i++) {
+            if (mIdCount == 0 || mSortedIds[i] != mSortedIds[mIdCount - 1]) {
+                mSortedIds[mIdCount++] = mSortedIds[i];
+            }
+        }
+        Arrays.fill(mFirstSections, 0, mIdCount, -1);
+        for (int i = 0; i < mCount; i++) {
+            int index = Arrays.binarySearch(mSortedIds, 0, mIdCount, mIndex.getSectionId(mSections[i]));
+            if (mFirstSections[index] < 0) {
+                mFirstSections[index] = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * Source of the header (or footer) sections of an adapter. A section is a run of consecutive
+ * positions sharing an id; sections with a negative id have no header.
+ * <p>
+ * Pick the cheapest representation of the data:
+ * <ul>
+ * <li>{@link ArithmeticSectionStrategy} for sections of a fixed size, computed with no storage</li>
+ * <li>{@link BoundarySectionStrategy} for sections whose starts are known up front, like server
+ * provided group offsets, kept in a sorted int array</li>
+ * <li>{@link SectionIndex} otherwise, built from the ids the adapter returns for its positions</li>
+ * </ul>
+ */
+public interface SectionStrategy {
+
+    /**
+     * Marks the sections as stale, they are brought up to date on the next query.
+     */
+    void invalidate();
+
+    int getItemCount();
+
+    int getSectionCount();
+
+    /**
+     * @param position adapter position
+     * @return index of the section containing the position, or -1 if the position is out of bounds
+     */
+    int getSectionForPosition(int position);
+
+    int getSectionStart(int section);
+
+    /**
+     * @return the last position (inclusive) of the given section
+     */
+    int getSectionEnd(int section);
+
+    long getSectionId(int section);
+
+    /**
+     * @return the id of the given position, or -1 if the position is out of bounds
+     */
+    long getId(int position);
+
+    /**
+     * Determines if a position is the first (or the last) position of a section that has a valid id.
+     * A section next to one of {@link SectionIds#UNKNOWN_ID unknown}
+     * id may go on into it, so its first (or last) position isn't a boundary.
+     *
+     * @param position adapter position
+     * @param atEnd    TRUE to check for the last position of the section instead of the first
+     * @return true if the position is on the requested boundary of its section
+     */
+    boolean isBoundary(int position, boolean atEnd);
+
+    /**
+     * @return the first position of the section following the one containing the position, or -1 if
+     * there is none
+     */
+    int getNextSectionStart(int position);
+
+    /**
+     * Brings the sections up to date and returns a counter that changes every time they do, so
+     * structures derived from them know when to be rebuilt.
+     */
+    int getModCount();
+
+    /**
+     * @return number of section ids touched by the last range update
+     */
+    int getChangedIdCount();
+
+    /**
+     * @return an id of a section touched by the last range update. Ids may be reported more than once.
+     */
+    long getChangedId(int index);
+
+    /**
+     * Applies an insertion reported by the adapter. The adapter must already contain the new items.
+     *
+     * @return false if the cached headers may all be stale, true if only the sections reported by
+     * {@link #getChangedId(int)} are
+     */
+    boolean onItemRangeInserted(int positionStart, int itemCount);
+
+    /**
+     * Applies a removal reported by the adapter. The adapter must no longer contain the removed items.
+     *
+     * @return false if the cached headers may all be stale, true if only the sections reported by
+     * {@link #getChangedId(int)} are
+     */
+    boolean onItemRangeRemoved(int positionStart, int itemCount);
+
+    /**
+     * Applies a change reported by the adapter.
+     *
+     * @return false if the cached headers may all be stale, true if only the sections reported by
+     * {@link #getChangedId(int)} are
+     */
+    boolean onItemRangeChanged(int positionStart, int itemCount);
+
+    /**
+     * Applies a move reported by the adapter.
+     *
+     * @return false if the cached headers may all be stale, true if only the sections reported by
+     * {@link #getChangedId(int)} are
+     */
+    boolean onItemRangeMoved(int fromPosition, int toPosition, int itemCount);
+}
@@ -0,0 +1,161 @@
+package com.wujf.stickyheaderfooter.core;
+
+/**
+ * The arithmetic of sticky headers and footers along the scroll axis: where a decoration sits
+ * relative to its child and the list edge, how far the sticky one is pushed by the next section,
+ * and the binary searches over the children of a frame.
+ * <p>
+ * Edges and extents are plain ints along the scroll axis; "before" and "after" margins are the
+ * margins of the decoration on its leading and trailing side.
+ */
+public final class StickyGeometry {
+
+    private StickyGeometry() {
+    }
+
+    /**
+     * @param childStart   leading edge of the child, margin included
+     * @param extent       size of the header along the scroll axis
+     * @param marginBefore leading margin of the header
+     * @param marginAfter  trailing margin of the header
+     * @param listStart    leading edge of the list
+     * @return leading edge of a header drawn before its child, kept inside the list
+     */
+    public static int headerStart(int childStart, int extent, int marginBefore, int marginAfter, int listStart) {
+        return Math.max(childStart - extent - marginAfter, listStart + marginBefore);
+    }
+
+    /**
+     * @param childEnd     trailing edge of the child, margin included
+     * @param extent       size of the footer along the scroll axis
+     * @param marginBefore leading margin of the footer
+     * @param marginAfter  trailing margin of the footer
+     * @param listEnd      trailing edge of the list
+     * @return trailing edge of a footer drawn after its child, kept inside the list
+     */
+    public static int footerEnd(int childEnd, int extent, int marginBefore, int marginAfter, int listEnd) {
+        return Math.min(childEnd + marginBefore + extent, listEnd - marginAfter);
+    }
+
+    /**
+     * @param stickyEnd   trailing edge of the sticky header
+     * @param marginAfter trailing margin of the sticky header
+     * @param nextStart   leading edge of the next header, margins included
+     * @return how far the sticky header must move back to clear the next one, 0 if it doesn't touch it
+     */
+    public static int pushOffOverlap(int stickyEnd, int marginAfter, int nextStart) {
+        return Math.max(0, stickyEnd + marginAfter - nextStart);
+    }
+
+    /**
+     * @param obscuredEnd  trailing edge of the last child under the sticky header
+     * @param extent       size of the header along the scroll axis
+     * @param marginBefore leading margin of the header
+     * @param listStart    leading edge of the list
+     * @return shift of the sticky header following the end of its section out of the list
+     */
+    public static int headerPushShift(int obscuredEnd, int extent, int marginBefore, int listStart) {
+        return obscuredEnd - extent - listStart - marginBefore;
+    }
+
+    /**
+     * @param obscuredStart leading edge of the first child of the next section under the sticky footer
+     * @param extent        size of the footer along the scroll axis
+     * @param marginBefore  leading margin of the footer
+     * @param marginAfter   trailing margin of the footer
+     * @param listEnd       trailing edge of the list
+     * @return shift of the sticky footer following the start of the next section, 0 if it is not pushed
+     */
+    public static int footerPushShift(int obscuredStart, int extent, int marginBefore, int marginAfter, int listEnd) {
+        return Math.max(0, obscuredStart - (listEnd - extent - marginAfter - marginBefore));
+    }
+
+    /**
+     * @return true if an item with this id starts (or ends) a section, given the id of the item before
+     * (or after) it, -1 if there is none. Nothing is a boundary next to a
+     * {@link SectionIds#UNKNOWN_ID unknown} item.
+     */
+    public static boolean isSectionBoundary(long id, long adjacentId) {
+        return id >= 0 && id != adjacentId && adjacentId != SectionIds.UNKNOWN_ID;
+    }
+
+    /**
+     * @return index of the first child whose leading edge, margin included, is at or past the edge.
+     * The children must be ordered along the scroll axis.
+     */
+    public static int findFirstChildStartingAt(ChildEdges edges, int edge) {
+        int low = 0;
+        int high = edges.getCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (edges.getStart(mid) < edge) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first child whose bottom edge, margin included, is at or past the edge. The
+     * children must be ordered along the scroll axis.
+     */
+    public static int findFirstChildEndingAt(ChildEdges edges, int edge) {
+        int low = 0;
+        int high = edges.getCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (edges.getBottom(mid) + edges.getBottomMargin(mid) < edge) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the number of leading children that belong to the section of the given id, 0 if the
+     * first child is in another section. The children must hold contiguous positions.
+     */
+    public static int countLeadingChildrenInSection(ChildEdges edges, SectionIds ids, long id) {
+        if (edges.getCount() == 0 || ids.getId(edges.getPosition(0)) != id) {
+            return 0;
+        }
+        int low = 0;
+        int high = edges.getCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids.getId(edges.getPosition(mid)) == id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first of the trailing children that belong to the section of the given id,
+     * or the child count if the last child is in another section. The children must hold contiguous
+     * positions.
+     */
+    public static int findFirstChildOfTrailingSection(ChildEdges edges, SectionIds ids, long id) {
+        int count = edges.getCount();
+        if (count == 0 || ids.getId(edges.getPosition(count - 1)) != id) {
+            return count;
+        }
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids.getId(edges.getPosition(mid)) != id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,95 @@
+package com.wujf.stickyheaderfooter.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArithmeticSectionStrategyTest {
+
+    @Test
+    public void dividesTheItemsIntoFixedSizeSections() {
+        ArithmeticSectionStrategy strategy = new ArithmeticSectionStrategy(new Items(105), 50);
+
+        assertEquals(3, strategy.getSectionCount());
+        assertEquals(0, strategy.getSectionForPosition(49));
+        assertEquals(1, strategy.getSectionForPosition(50));
+        assertEquals(2, strategy.getSectionForPosition(104));
+        assertEquals(-1, strategy.getSectionForPosition(105));
+        assertEquals(100, strategy.getSectionStart(2));
+        assertEquals(99, strategy.getSectionEnd(1));
+        assertEquals(104, strategy.getSectionEnd(2));
+        assertEquals(2, strategy.getId(100));
+        assertEquals(-1, strategy.getId(-1));
+    }
+
+    @Test
+    public void boundariesAndNextSections() {
+        ArithmeticSectionStrategy strategy = new ArithmeticSectionStrategy(new Items(105), 50);
+
+        assertTrue(strategy.isBoundary(50, false));
+        assertTrue(strategy.isBoundary(99, true));
+        assertTrue(strategy.isBoundary(104, true));
+        assertFalse(strategy.isBoundary(51, false));
+        assertFalse(strategy.isBoundary(105, false));
+        assertEquals(50, strategy.getNextSectionStart(0));
+        assertEquals(-1, strategy.getNextSectionStart(100));
+    }
+
+    @Test
+    public void followsTheItemCount() {
+        Items items = new Items(100);
+        ArithmeticSectionStrategy strategy = new ArithmeticSectionStrategy(items, 50);
+        int modCount = strategy.getModCount();
+
+        items.mCount = 101;
+
+        assertTrue(strategy.getModCount() != modCount);
+        assertEquals(3, strategy.getSectionCount());
+        assertEquals(100, strategy.getSectionEnd(2));
+    }
+
+    @Test
+    public void changeReportsTheSectionsOfTheChangedItems() {
+        ArithmeticSectionStrategy strategy = new ArithmeticSectionStrategy(new Items(200), 50);
+        strategy.getSectionCount();
+
+        assertTrue(strategy.onItemRangeChanged(45, 60));
+        assertEquals(3, strategy.getChangedIdCount());
+        assertEquals(0, strategy.getChangedId(0));
+        assertEquals(2, strategy.getChangedId(2));
+
+        assertTrue(strategy.onItemRangeMoved(160, 10, 1));
+        assertEquals(4, strategy.getChangedIdCount());
+    }
+
+    @Test
+    public void structuralChangesAreLeftToARebuild() {
+        ArithmeticSectionStrategy strategy = new ArithmeticSectionStrategy(new Items(200), 50);
+        strategy.onItemRangeChanged(0, 1);
+
+        assertFalse(strategy.onItemRangeInserted(10, 1));
+        assertEquals(0, strategy.getChangedIdCount());
+        assertFalse(strategy.onItemRangeRemoved(10, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptySections() {
+        new ArithmeticSectionStrategy(new Items(10), 0);
+    }
+
+    static class Items implements ItemCountProvider {
+
+        int mCount;
+
+        Items(int count) {
+            mCount = count;
+        }
+
+        @Override
+        public int getItemCount() {
+            return mCount;
+        }
+    }
+}
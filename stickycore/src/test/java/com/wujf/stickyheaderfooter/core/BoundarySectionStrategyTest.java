@@ -0,0 +1,113 @@
+package com.wujf.stickyheaderfooter.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundarySectionStrategyTest {
+
+    @Test
+    public void findsTheSectionOfAPosition() {
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20));
+        strategy.setSections(new int[]{0, 3, 10}, new long[]{7, -1, 9});
+
+        assertEquals(3, strategy.getSectionCount());
+        assertEquals(0, strategy.getSectionForPosition(2));
+        assertEquals(1, strategy.getSectionForPosition(3));
+        assertEquals(2, strategy.getSectionForPosition(19));
+        assertEquals(-1, strategy.getSectionForPosition(20));
+        assertEquals(9, strategy.getSectionEnd(1));
+        assertEquals(19, strategy.getSectionEnd(2));
+        assertEquals(-1, strategy.getId(5));
+        assertEquals(9, strategy.getId(10));
+        assertEquals(10, strategy.getNextSectionStart(3));
+        assertEquals(-1, strategy.getNextSectionStart(10));
+    }
+
+    @Test
+    public void onlySectionsWithAHeaderHaveBoundaries() {
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20));
+        strategy.setSections(new int[]{0, 3, 10}, new long[]{7, -1, 9});
+
+        assertTrue(strategy.isBoundary(0, false));
+        assertTrue(strategy.isBoundary(2, true));
+        assertFalse(strategy.isBoundary(3, false));
+        assertFalse(strategy.isBoundary(9, true));
+        assertTrue(strategy.isBoundary(10, false));
+        assertTrue(strategy.isBoundary(19, true));
+    }
+
+    @Test
+    public void numbersTheSectionsWithoutIds() {
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20));
+        strategy.setSections(new int[]{0, 5}, null);
+
+        assertEquals(0, strategy.getId(4));
+        assertEquals(1, strategy.getId(5));
+    }
+
+    @Test
+    public void dropsTheSectionsPastTheEndOfTheAdapter() {
+        ArithmeticSectionStrategyTest.Items items = new ArithmeticSectionStrategyTest.Items(8);
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(items);
+        strategy.setSections(new int[]{0, 3, 10}, null);
+
+        assertEquals(2, strategy.getSectionCount());
+        assertEquals(7, strategy.getSectionEnd(1));
+
+        items.mCount = 12;
+        assertEquals(3, strategy.getSectionCount());
+    }
+
+    @Test
+    public void newSectionsChangeTheModCount() {
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20));
+        strategy.setSections(new int[]{0, 10}, null);
+        int modCount = strategy.getModCount();
+
+        strategy.setSections(new int[]{0, 5, 10}, null);
+
+        assertTrue(strategy.getModCount() != modCount);
+        assertEquals(3, strategy.getSectionCount());
+    }
+
+    @Test
+    public void changeReportsTheSectionsOfTheChangedItems() {
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20));
+        strategy.setSections(new int[]{0, 3, 10}, new long[]{7, 8, 9});
+
+        assertTrue(strategy.onItemRangeChanged(2, 2));
+        assertEquals(2, strategy.getChangedIdCount());
+        assertEquals(7, strategy.getChangedId(0));
+        assertEquals(8, strategy.getChangedId(1));
+        assertFalse(strategy.onItemRangeChanged(19, 5));
+    }
+
+    @Test
+    public void structuralChangesAreLeftToARebuild() {
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20));
+        strategy.setSections(new int[]{0, 10}, null);
+
+        assertFalse(strategy.onItemRangeInserted(0, 1));
+        assertFalse(strategy.onItemRangeRemoved(0, 1));
+        assertFalse(strategy.onItemRangeMoved(0, 5, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSectionsNotStartingAtZero() {
+        new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20)).setSections(new int[]{1, 5}, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsortedStarts() {
+        new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20)).setSections(new int[]{0, 5, 5}, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingIds() {
+        new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20))
+                .setSections(new int[]{0, 5}, new long[]{1});
+    }
+}
@@ -0,0 +1,114 @@
+package com.wujf.stickyheaderfooter.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChildEdgesTest {
+
+    @Test
+    public void contiguousPositionsAreFoundByOffset() {
+        ChildEdges edges = vertical(10, 11, 12, 13);
+
+        assertTrue(edges.hasContiguousPositions());
+        assertTrue(edges.isOrderedAlongScrollAxis());
+        assertEquals(10, edges.getMinPosition());
+        assertEquals(13, edges.getMaxPosition());
+        assertEquals(0, edges.indexOfPosition(10));
+        assertEquals(3, edges.indexOfPosition(13));
+        assertEquals(-1, edges.indexOfPosition(9));
+        assertEquals(-1, edges.indexOfPosition(14));
+    }
+
+    @Test
+    public void reversePositionsAreFoundByOffset() {
+        ChildEdges edges = vertical(13, 12, 11, 10);
+
+        assertFalse(edges.hasContiguousPositions());
+        assertEquals(0, edges.indexOfPosition(13));
+        assertEquals(3, edges.indexOfPosition(10));
+        assertEquals(-1, edges.indexOfPosition(14));
+    }
+
+    @Test
+    public void scatteredPositionsAreFoundThroughTheTable() {
+        // Grid rows filled out of order, with a child not bound to the adapter
+        ChildEdges edges = vertical(4, 3, ChildEdges.NO_POSITION, 6);
+
+        assertFalse(edges.hasContiguousPositions());
+        assertEquals(3, edges.getMinPosition());
+        assertEquals(6, edges.getMaxPosition());
+        assertEquals(1, edges.indexOfPosition(3));
+        assertEquals(0, edges.indexOfPosition(4));
+        assertEquals(-1, edges.indexOfPosition(5));
+        assertEquals(3, edges.indexOfPosition(6));
+        assertEquals(-1, edges.indexOfPosition(ChildEdges.NO_POSITION));
+    }
+
+    @Test
+    public void noBoundChildHasNoPositionRange() {
+        ChildEdges edges = vertical(ChildEdges.NO_POSITION, ChildEdges.NO_POSITION);
+
+        assertEquals(ChildEdges.NO_POSITION, edges.getMinPosition());
+        assertEquals(ChildEdges.NO_POSITION, edges.getMaxPosition());
+        assertEquals(-1, edges.indexOfPosition(0));
+    }
+
+    @Test
+    public void orderFollowsTheScrollAxis() {
+        ChildEdges edges = new ChildEdges();
+        edges.begin(2, true);
+        edges.set(0, 0, 0, 100, 200, 0, 0, 0);
+        edges.set(1, 1, 0, 50, 100, 0, 0, 0);
+        edges.end();
+        assertFalse(edges.isOrderedAlongScrollAxis());
+
+        edges.begin(2, false);
+        edges.set(0, 0, 0, 100, 200, 0, 0, 0);
+        edges.set(1, 1, 100, 50, 100, 0, 0, 0);
+        edges.end();
+        assertTrue(edges.isOrderedAlongScrollAxis());
+    }
+
+    @Test
+    public void startIncludesTheLeadingMargin() {
+        ChildEdges edges = new ChildEdges();
+        edges.begin(1, true);
+        edges.set(0, 0, 30, 40, 90, 3, 4, 5);
+        edges.end();
+        assertEquals(36, edges.getStart(0));
+
+        edges.begin(1, false);
+        edges.set(0, 0, 30, 40, 90, 3, 4, 5);
+        edges.end();
+        assertEquals(27, edges.getStart(0));
+    }
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        int[] positions = new int[100];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        ChildEdges edges = vertical(positions);
+
+        assertEquals(100, edges.getCount());
+        assertEquals(99, edges.indexOfPosition(99));
+        assertEquals(990, edges.getTop(99));
+    }
+
+    /**
+     * Children 10 high, stacked from the top in the given order.
+     */
+    static ChildEdges vertical(int... positions) {
+        ChildEdges edges = new ChildEdges();
+        edges.begin(positions.length, true);
+        for (int i = 0; i < positions.length; i++) {
+            edges.set(i, positions[i], 0, i * 10, i * 10 + 10, 0, 0, 0);
+        }
+        edges.end();
+        return edges;
+    }
+}
@@ -0,0 +1,156 @@
+package com.wujf.stickyheaderfooter.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RectIndexTest {
+
+    @Test
+    public void findsTheRectUnderAPoint() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        index.add(0, 0, 0, 100, 20);
+        index.add(10, 0, 200, 100, 220);
+        index.add(20, 0, 400, 100, 420);
+        index.endFrame(true);
+
+        assertEquals(0, index.findPositionAt(50, 0, null));
+        assertEquals(10, index.findPositionAt(50, 219, null));
+        assertEquals(20, index.findPositionAt(99, 400, null));
+        assertEquals(-1, index.findPositionAt(50, 220, null));
+        assertEquals(-1, index.findPositionAt(100, 10, null));
+    }
+
+    @Test
+    public void lastDrawnRectWinsWhereRectsOverlap() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        // The sticky header, pushed half way off by the next one drawn after it
+        index.add(10, 0, -10, 100, 10);
+        index.add(20, 0, 5, 100, 25);
+        index.endFrame(true);
+
+        assertEquals(10, index.findPositionAt(50, 0, null));
+        assertEquals(20, index.findPositionAt(50, 8, null));
+    }
+
+    @Test
+    public void filterSkipsRejectedPositions() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        index.add(10, 0, 0, 100, 20);
+        index.add(20, 0, 10, 100, 30);
+        index.endFrame(true);
+
+        PositionFilter rejectTwenty = new PositionFilter() {
+            @Override
+            public boolean accept(int position) {
+                return position != 20;
+            }
+        };
+        assertEquals(10, index.findPositionAt(50, 15, rejectTwenty));
+        assertEquals(-1, index.findPositionAt(50, 25, rejectTwenty));
+    }
+
+    @Test
+    public void bandIsTheUnionOfTheRects() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        assertFalse(index.hasBand());
+        index.add(0, 10, 0, 50, 20);
+        index.add(4, 50, 300, 90, 320);
+        // Empty rects don't widen the band
+        index.add(8, 500, 500, 500, 600);
+        index.endFrame(true);
+
+        assertTrue(index.hasBand());
+        assertEquals(10, index.getBandLeft());
+        assertEquals(0, index.getBandTop());
+        assertEquals(90, index.getBandRight());
+        assertEquals(320, index.getBandBottom());
+    }
+
+    @Test
+    public void containsPointTestsTheRectsNotTheBand() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        // Headers of two grid columns in different rows
+        index.add(0, 0, 0, 50, 20);
+        index.add(7, 50, 200, 100, 220);
+        index.endFrame(true);
+
+        assertTrue(index.containsPoint(25, 10));
+        assertTrue(index.containsPoint(75, 210));
+        // Inside the band, between the rows
+        assertFalse(index.containsPoint(25, 100));
+        // Inside the band, beside the headers
+        assertFalse(index.containsPoint(75, 10));
+        assertFalse(index.containsPoint(25, 210));
+        // Outside the band
+        assertFalse(index.containsPoint(25, 300));
+    }
+
+    @Test
+    public void horizontalListsAreSearchedAlongX() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        index.add(5, 200, 0, 220, 100);
+        index.add(0, 0, 0, 20, 100);
+        index.endFrame(false);
+
+        assertEquals(0, index.findPositionAt(10, 50, null));
+        assertEquals(5, index.findPositionAt(210, 50, null));
+        assertEquals(-1, index.findPositionAt(100, 50, null));
+    }
+
+    @Test
+    public void rangeUpdatesShiftAndDropPositions() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        index.add(0, 0, 0, 100, 20);
+        index.add(10, 0, 200, 100, 220);
+        index.add(20, 0, 400, 100, 420);
+        index.endFrame(true);
+
+        index.onItemRangeInserted(5, 3);
+        assertEquals(0, index.findPositionAt(50, 10, null));
+        assertEquals(13, index.findPositionAt(50, 210, null));
+        assertEquals(23, index.findPositionAt(50, 410, null));
+
+        index.onItemRangeRemoved(13, 2);
+        assertEquals(-1, index.findPositionAt(50, 210, null));
+        assertFalse(index.containsPoint(50, 210));
+        assertEquals(21, index.findPositionAt(50, 410, null));
+        assertEquals(2, index.indexOfPosition(21));
+    }
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        for (int i = 0; i < 40; i++) {
+            index.add(i, 0, i * 100, 100, i * 100 + 20);
+        }
+        index.endFrame(true);
+
+        assertEquals(40, index.getCount());
+        assertEquals(39, index.findPositionAt(50, 3910, null));
+        assertEquals(-1, index.findPositionAt(50, 3950, null));
+    }
+
+    @Test
+    public void clearForgetsTheFrame() {
+        RectIndex index = new RectIndex();
+        index.beginFrame();
+        index.add(0, 0, 0, 100, 20);
+        index.endFrame(true);
+        index.clear();
+
+        assertFalse(index.hasBand());
+        assertFalse(index.containsPoint(50, 10));
+        assertEquals(-1, index.findPositionAt(50, 10, null));
+    }
+}
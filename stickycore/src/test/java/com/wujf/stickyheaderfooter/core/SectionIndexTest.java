@@ -0,0 +1,360 @@
+package com.wujf.stickyheaderfooter.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SectionIndexTest {
+
+    private static final long U = SectionIds.UNKNOWN_ID;
+
+    @Test
+    public void groupsRunsOfEqualIds() {
+        SectionIndex index = new SectionIndex(new ListIdLookup(1, 1, 2, 2, 2, 3));
+
+        assertSections(index, new int[]{0, 2, 5}, new long[]{1, 2, 3});
+        assertEquals(6, index.getItemCount());
+        assertEquals(1, index.getSectionForPosition(4));
+        assertEquals(-1, index.getSectionForPosition(6));
+        assertEquals(4, index.getSectionEnd(1));
+        assertEquals(2, index.getId(2));
+        assertEquals(-1, index.getId(-1));
+        assertEquals(5, index.getNextSectionStart(3));
+        assertEquals(-1, index.getNextSectionStart(5));
+    }
+
+    @Test
+    public void boundariesOfSectionsWithAHeader() {
+        SectionIndex index = new SectionIndex(new ListIdLookup(1, 1, -1, -1, 2));
+
+        assertTrue(index.isBoundary(0, false));
+        assertTrue(index.isBoundary(1, true));
+        assertFalse(index.isBoundary(1, false));
+        assertFalse(index.isBoundary(2, false));
+        assertFalse(index.isBoundary(3, true));
+        assertTrue(index.isBoundary(4, false));
+        assertTrue(index.isBoundary(4, true));
+        assertFalse(index.isBoundary(5, false));
+    }
+
+    @Test
+    public void insertInsideASectionShiftsTheNextOnes() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2, 2, 3);
+        SectionIndex index = built(lookup);
+
+        lookup.insert(3, 2, 2);
+        assertTrue(index.onItemRangeInserted(3, 2));
+
+        assertSections(index, new int[]{0, 2, 7}, new long[]{1, 2, 3});
+        assertChanged(index, 2);
+    }
+
+    @Test
+    public void insertAtASectionBoundaryAddsASection() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2, 2, 3);
+        SectionIndex index = built(lookup);
+
+        lookup.insert(2, 9, 1);
+        assertTrue(index.onItemRangeInserted(2, 1));
+
+        assertSections(index, new int[]{0, 2, 3, 6}, new long[]{1, 9, 2, 3});
+        assertMatchesRebuild(index, lookup);
+        assertChanged(index, 1, 2, 9);
+    }
+
+    @Test
+    public void insertAtASectionBoundaryExtendsAnEqualSection() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2, 2, 3);
+        SectionIndex index = built(lookup);
+
+        lookup.insert(2, 1, 2);
+        assertTrue(index.onItemRangeInserted(2, 2));
+
+        assertSections(index, new int[]{0, 4, 7}, new long[]{1, 2, 3});
+        assertMatchesRebuild(index, lookup);
+    }
+
+    @Test
+    public void insertAtBothEnds() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2);
+        SectionIndex index = built(lookup);
+
+        lookup.insert(0, 0, 3);
+        assertTrue(index.onItemRangeInserted(0, 3));
+        lookup.insert(7, 3, 1);
+        assertTrue(index.onItemRangeInserted(7, 1));
+
+        assertSections(index, new int[]{0, 3, 5, 7}, new long[]{0, 1, 2, 3});
+        assertMatchesRebuild(index, lookup);
+    }
+
+    @Test
+    public void removeOfAWholeSection() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2, 2, 3);
+        SectionIndex index = built(lookup);
+
+        lookup.remove(2, 3);
+        assertTrue(index.onItemRangeRemoved(2, 3));
+
+        assertSections(index, new int[]{0, 2}, new long[]{1, 3});
+        assertChanged(index, 1, 2, 3);
+    }
+
+    @Test
+    public void removeAcrossABoundaryMergesTheSections() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 1, 1, 3);
+        SectionIndex index = built(lookup);
+
+        lookup.remove(2, 1);
+        assertTrue(index.onItemRangeRemoved(2, 1));
+
+        assertSections(index, new int[]{0, 4}, new long[]{1, 3});
+        assertMatchesRebuild(index, lookup);
+    }
+
+    @Test
+    public void removeOfTheTail() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2, 3, 3);
+        SectionIndex index = built(lookup);
+
+        lookup.remove(3, 3);
+        assertTrue(index.onItemRangeRemoved(3, 3));
+
+        assertSections(index, new int[]{0, 2}, new long[]{1, 2});
+        assertEquals(2, index.getSectionEnd(1));
+        assertMatchesRebuild(index, lookup);
+    }
+
+    @Test
+    public void changeAcrossABoundarySplitsTheSections() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2, 2, 3);
+        SectionIndex index = built(lookup);
+
+        lookup.set(1, 5);
+        lookup.set(2, 5);
+        assertTrue(index.onItemRangeChanged(1, 2));
+
+        assertSections(index, new int[]{0, 1, 3, 5}, new long[]{1, 5, 2, 3});
+        assertMatchesRebuild(index, lookup);
+        assertChanged(index, 1, 2, 5);
+    }
+
+    @Test
+    public void changeOfTheLastItem() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2);
+        SectionIndex index = built(lookup);
+
+        lookup.set(3, 4);
+        assertTrue(index.onItemRangeChanged(3, 1));
+
+        assertSections(index, new int[]{0, 2, 3}, new long[]{1, 2, 4});
+    }
+
+    @Test
+    public void moveReadsTheRangeBetweenBothLocations() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2, 3, 3);
+        SectionIndex index = built(lookup);
+
+        // Item 0 moved to position 4
+        lookup.remove(0, 1);
+        lookup.insert(4, 1, 1);
+        assertTrue(index.onItemRangeMoved(0, 4, 1));
+
+        assertMatchesRebuild(index, lookup);
+    }
+
+    @Test
+    public void updateOfADifferentSizeThanTheAdapterRebuilds() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2);
+        SectionIndex index = built(lookup);
+        int modCount = index.getModCount();
+
+        lookup.insert(4, 3, 2);
+        assertFalse(index.onItemRangeInserted(4, 1));
+
+        assertSections(index, new int[]{0, 2, 4}, new long[]{1, 2, 3});
+        assertTrue(index.getModCount() != modCount);
+    }
+
+    @Test
+    public void updateBeforeTheFirstBuildIsIgnored() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2);
+        SectionIndex index = new SectionIndex(lookup);
+
+        lookup.insert(0, 0, 1);
+        assertFalse(index.onItemRangeInserted(0, 1));
+
+        assertSections(index, new int[]{0, 1, 3}, new long[]{0, 1, 2});
+    }
+
+    @Test
+    public void noBoundaryNextToUnknownIds() {
+        SectionIndex index = new SectionIndex(new ListIdLookup(1, 1, U, U, 2, 2));
+
+        assertSections(index, new int[]{0, 2, 4}, new long[]{1, U, 2});
+        assertTrue(index.isBoundary(0, false));
+        assertFalse(index.isBoundary(1, true));
+        assertFalse(index.isBoundary(2, false));
+        assertFalse(index.isBoundary(4, false));
+        assertTrue(index.isBoundary(5, true));
+        assertEquals(U, index.getId(3));
+    }
+
+    @Test
+    public void loadingAPageOnlyReadsThePageAndItsNeighbour() {
+        ListIdLookup lookup = new ListIdLookup(new long[1000]);
+        for (int i = 0; i < 1000; i++) {
+            lookup.set(i, i < 100 ? 1 : U);
+        }
+        SectionIndex index = built(lookup);
+        lookup.mReads = 0;
+
+        for (int i = 100; i < 150; i++) {
+            lookup.set(i, 2);
+        }
+        assertTrue(index.onItemRangeChanged(100, 50));
+
+        assertSections(index, new int[]{0, 100, 150}, new long[]{1, 2, U});
+        assertEquals(51, lookup.mReads);
+        assertFalse(index.isBoundary(149, true));
+        assertTrue(index.isBoundary(99, true));
+    }
+
+    @Test
+    public void takesTheSectionsOfALookupThatKnowsThem() {
+        ListIdLookup lookup = new ListIdLookup(1, 1, 2, 2, 2, 3);
+        lookup.mKnowsSections = true;
+        SectionIndex index = new SectionIndex(lookup);
+
+        assertSections(index, new int[]{0, 2, 5}, new long[]{1, 2, 3});
+        assertEquals(0, lookup.mReads);
+    }
+
+    private static SectionIndex built(ListIdLookup lookup) {
+        SectionIndex index = new SectionIndex(lookup);
+        index.getSectionCount();
+        return index;
+    }
+
+    private static void assertSections(SectionStrategy index, int[] starts, long[] ids) {
+        assertEquals(starts.length, index.getSectionCount());
+        for (int i = 0; i < starts.length; i++) {
+            assertEquals("start of section " + i, starts[i], index.getSectionStart(i));
+            assertEquals("id of section " + i, ids[i], index.getSectionId(i));
+        }
+    }
+
+    private static void assertMatchesRebuild(SectionIndex index, ListIdLookup lookup) {
+        SectionIndex rebuilt = new SectionIndex(lookup);
+        int count = rebuilt.getSectionCount();
+        int[] starts = new int[count];
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = rebuilt.getSectionStart(i);
+            ids[i] = rebuilt.getSectionId(i);
+        }
+        assertSections(index, starts, ids);
+        for (int position = 0; position < lookup.getItemCount(); position++) {
+            assertEquals(rebuilt.getSectionForPosition(position), index.getSectionForPosition(position));
+        }
+    }
+
+    /**
+     * Checks the changed ids of the last update, ignoring their order and repetitions.
+     */
+    private static void assertChanged(SectionIndex index, long... expected) {
+        List<Long> changed = new ArrayList<Long>();
+        for (int i = 0; i < index.getChangedIdCount(); i++) {
+            if (!changed.contains(index.getChangedId(i))) {
+                changed.add(index.getChangedId(i));
+            }
+        }
+        long[] actual = new long[changed.size()];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = changed.get(i);
+        }
+        Arrays.sort(actual);
+        assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+    }
+
+    /**
+     * Ids in a list the tests edit the way an adapter's data would be, counting the ids read.
+     */
+    private static class ListIdLookup implements SectionIndex.IdLookup {
+
+        private final List<Long> mIds = new ArrayList<Long>();
+        boolean mKnowsSections;
+        int mReads;
+
+        ListIdLookup(long... ids) {
+            for (long id : ids) {
+                mIds.add(id);
+            }
+        }
+
+        void insert(int position, long id, int count) {
+            for (int i = 0; i < count; i++) {
+                mIds.add(position, id);
+            }
+        }
+
+        void remove(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                mIds.remove(position);
+            }
+        }
+
+        void set(int position, long id) {
+            mIds.set(position, id);
+        }
+
+        @Override
+        public long getId(int position) {
+            mReads++;
+            return mIds.get(position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mIds.size();
+        }
+
+        @Override
+        public void getIds(int from, int to, long[] out) {
+            for (int position = from; position < to; position++) {
+                out[position - from] = getId(position);
+            }
+        }
+
+        @Override
+        public int getSectionCount() {
+            if (!mKnowsSections) {
+                return -1;
+            }
+            int count = 0;
+            for (int i = 0; i < mIds.size(); i++) {
+                if (i == 0 || !mIds.get(i).equals(mIds.get(i - 1))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void getSections(int[] starts, long[] ids) {
+            int count = 0;
+            for (int i = 0; i < mIds.size(); i++) {
+                if (i == 0 || !mIds.get(i).equals(mIds.get(i - 1))) {
+                    starts[count] = i;
+                    ids[count++] = mIds.get(i);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.wujf.stickyheaderfooter.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SectionNavigatorTest {
+
+    @Test
+    public void skipsTheSectionsWithoutAHeader() {
+        SectionNavigator navigator = navigator(new int[]{0, 3, 10, 15}, new long[]{7, -1, 9, 7});
+
+        assertEquals(3, navigator.getSectionCount());
+        assertEquals(0, navigator.getSectionStart(0));
+        assertEquals(10, navigator.getSectionStart(1));
+        assertEquals(15, navigator.getSectionStart(2));
+        assertEquals(-1, navigator.getSectionStart(3));
+        assertEquals(9, navigator.getSectionId(1));
+        assertEquals(-1, navigator.getSectionId(-1));
+    }
+
+    @Test
+    public void positionsWithoutAHeaderBelongToThePreviousSection() {
+        SectionNavigator navigator = navigator(new int[]{0, 3, 10, 15}, new long[]{7, -1, 9, 7});
+
+        assertEquals(0, navigator.getSectionForPosition(2));
+        assertEquals(0, navigator.getSectionForPosition(5));
+        assertEquals(1, navigator.getSectionForPosition(10));
+        assertEquals(2, navigator.getSectionForPosition(19));
+        assertEquals(-1, navigator.getSectionForPosition(-1));
+    }
+
+    @Test
+    public void findsTheFirstSectionOfAnId() {
+        SectionNavigator navigator = navigator(new int[]{0, 3, 10, 15}, new long[]{7, -1, 9, 7});
+
+        assertEquals(0, navigator.findSection(7));
+        assertEquals(1, navigator.findSection(9));
+        assertEquals(-1, navigator.findSection(8));
+        assertEquals(-1, navigator.findSection(-1));
+    }
+
+    @Test
+    public void stepsToTheNextAndPreviousSections() {
+        SectionNavigator navigator = navigator(new int[]{0, 3, 10, 15}, new long[]{7, -1, 9, 7});
+
+        assertEquals(10, navigator.getNextSectionStart(0));
+        assertEquals(10, navigator.getNextSectionStart(5));
+        assertEquals(-1, navigator.getNextSectionStart(15));
+        assertEquals(10, navigator.getPreviousSectionStart(12));
+        assertEquals(0, navigator.getPreviousSectionStart(10));
+        assertEquals(-1, navigator.getPreviousSectionStart(0));
+    }
+
+    @Test
+    public void followsTheChangesOfItsStrategy() {
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20));
+        strategy.setSections(new int[]{0, 10}, new long[]{1, 2});
+        SectionNavigator navigator = new SectionNavigator(strategy);
+        assertEquals(2, navigator.getSectionCount());
+
+        strategy.setSections(new int[]{0, 5, 10}, new long[]{1, 3, 2});
+
+        assertEquals(3, navigator.getSectionCount());
+        assertEquals(1, navigator.findSection(3));
+        assertEquals(2, navigator.findSection(2));
+    }
+
+    private static SectionNavigator navigator(int[] starts, long[] ids) {
+        BoundarySectionStrategy strategy = new BoundarySectionStrategy(new ArithmeticSectionStrategyTest.Items(20));
+        strategy.setSections(starts, ids);
+        return new SectionNavigator(strategy);
+    }
+}
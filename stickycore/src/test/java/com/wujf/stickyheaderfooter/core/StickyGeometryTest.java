@@ -0,0 +1,102 @@
+package com.wujf.stickyheaderfooter.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StickyGeometryTest {
+
+    @Test
+    public void headerSitsBeforeItsChildInsideTheList() {
+        assertEquals(70, StickyGeometry.headerStart(100, 20, 2, 10, 0));
+        assertEquals(12, StickyGeometry.headerStart(20, 20, 2, 10, 10));
+    }
+
+    @Test
+    public void footerSitsAfterItsChildInsideTheList() {
+        assertEquals(122, StickyGeometry.footerEnd(100, 20, 2, 10, 500));
+        assertEquals(490, StickyGeometry.footerEnd(480, 20, 2, 10, 500));
+    }
+
+    @Test
+    public void pushOffOverlapIsHowFarTheNextHeaderReachesIn() {
+        assertEquals(0, StickyGeometry.pushOffOverlap(20, 0, 50));
+        assertEquals(0, StickyGeometry.pushOffOverlap(20, 5, 25));
+        assertEquals(3, StickyGeometry.pushOffOverlap(20, 5, 22));
+        assertEquals(25, StickyGeometry.pushOffOverlap(20, 5, 0));
+    }
+
+    @Test
+    public void pushShiftsFollowTheEndOfTheSection() {
+        assertEquals(-5, StickyGeometry.headerPushShift(15, 20, 0, 0));
+        assertEquals(0, StickyGeometry.headerPushShift(20, 20, 0, 0));
+        assertEquals(0, StickyGeometry.footerPushShift(400, 20, 0, 0, 500));
+        assertEquals(5, StickyGeometry.footerPushShift(485, 20, 0, 0, 500));
+    }
+
+    @Test
+    public void boundaryNeedsADifferentNeighbour() {
+        assertTrue(StickyGeometry.isSectionBoundary(2, 1));
+        assertTrue(StickyGeometry.isSectionBoundary(2, -1));
+        assertFalse(StickyGeometry.isSectionBoundary(2, 2));
+        assertFalse(StickyGeometry.isSectionBoundary(-1, 2));
+    }
+
+    @Test
+    public void noBoundaryNextToAnUnknownId() {
+        assertFalse(StickyGeometry.isSectionBoundary(2, SectionIds.UNKNOWN_ID));
+        assertFalse(StickyGeometry.isSectionBoundary(SectionIds.UNKNOWN_ID, 2));
+        assertFalse(StickyGeometry.isSectionBoundary(SectionIds.UNKNOWN_ID, SectionIds.UNKNOWN_ID));
+    }
+
+    @Test
+    public void findsTheFirstChildAtAnEdge() {
+        // Children 10 high from 0 to 50
+        ChildEdges edges = ChildEdgesTest.vertical(0, 1, 2, 3, 4);
+
+        assertEquals(0, StickyGeometry.findFirstChildStartingAt(edges, 0));
+        assertEquals(2, StickyGeometry.findFirstChildStartingAt(edges, 15));
+        assertEquals(2, StickyGeometry.findFirstChildStartingAt(edges, 20));
+        assertEquals(5, StickyGeometry.findFirstChildStartingAt(edges, 45));
+        assertEquals(1, StickyGeometry.findFirstChildEndingAt(edges, 15));
+        assertEquals(1, StickyGeometry.findFirstChildEndingAt(edges, 20));
+        assertEquals(5, StickyGeometry.findFirstChildEndingAt(edges, 51));
+    }
+
+    @Test
+    public void countsTheChildrenOfTheLeadingAndTrailingSections() {
+        ChildEdges edges = ChildEdgesTest.vertical(3, 4, 5, 6, 7, 8);
+        final long[] ids = {0, 0, 0, 1, 1, 1, 2, 2, 2};
+        SectionIds sectionIds = new SectionIds() {
+            @Override
+            public long getId(int position) {
+                return ids[position];
+            }
+        };
+
+        assertEquals(3, StickyGeometry.countLeadingChildrenInSection(edges, sectionIds, 1));
+        assertEquals(0, StickyGeometry.countLeadingChildrenInSection(edges, sectionIds, 0));
+        assertEquals(3, StickyGeometry.findFirstChildOfTrailingSection(edges, sectionIds, 2));
+        assertEquals(6, StickyGeometry.findFirstChildOfTrailingSection(edges, sectionIds, 1));
+    }
+
+    @Test
+    public void noLeadingChildrenWhenTheFirstChildIsInAnotherSection() {
+        // A leading item without a header above the sticky section
+        ChildEdges edges = ChildEdgesTest.vertical(0, 1, 2, 3, 4);
+        final long[] ids = {-1, 2, 2, 2, 3};
+        SectionIds sectionIds = new SectionIds() {
+            @Override
+            public long getId(int position) {
+                return ids[position];
+            }
+        };
+
+        assertEquals(0, StickyGeometry.countLeadingChildrenInSection(edges, sectionIds, 2));
+        assertEquals(1, StickyGeometry.countLeadingChildrenInSection(edges, sectionIds, -1));
+        assertEquals(5, StickyGeometry.findFirstChildOfTrailingSection(edges, sectionIds, 2));
+        assertEquals(4, StickyGeometry.findFirstChildOfTrailingSection(edges, sectionIds, 3));
+    }
+}